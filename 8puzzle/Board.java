@@ -7,16 +7,67 @@
 
 import edu.princeton.cs.algs4.Stack;
 
+import java.util.Arrays;
+
 /**
  * Creates a data type that models an n-by-n board with sliding tiles by implementing an immutable
  * data type Board.
+ * <p>
+ * The tiles are stored in a flat short[] in row-major order, i.e., the tile at (row, col) is at
+ * position row * n + col (a short suffices, since n < 128). The position of the blank square is
+ * stored in a field, and the goal row and column of every tile are looked up in tables that are
+ * computed once per dimension and shared by all boards. Hence, copying a board is a single
+ * System.arraycopy() (by clone()), and generating a neighbor takes constant time apart from that
+ * copy.
+ * <p>
+ * The Hamming and Manhattan distances are computed once by the constructor. A neighboring board
+ * differs from this board only by the tile that slid into the blank square, so neighbors() and
+ * twin() obtain the distances of the new boards from the ones of this board by only looking at
+ * the moved tiles. Hence, hamming() and manhattan() take constant time.
  *
  * @author Florian Woerz
  */
 public class Board {
 
-    private final int[][] board;
+    // goal tables of all dimensions 2 <= n < 128, created on first use
+    private static final GoalTables[] GOAL_TABLES = new GoalTables[128];
+
+    private final short[] tiles;        // tiles in row-major order
     private final int dimension;
+    private final int blank;            // position of the blank square
+    private final GoalTables goal;      // goal tables of this dimension
+    private final int hamming;          // cached Hamming distance to the goal board
+    private final int manhattan;        // cached Manhattan distance to the goal board
+
+    /**
+     * Goal row and column of every tile of an n-by-n board: tile t (1 <= t <= n^2 - 1) belongs at
+     * position t - 1. Since position p is the goal position of tile p + 1, the tables also give
+     * the row and column of every position p as row[p + 1] and col[p + 1].
+     */
+    private static final class GoalTables {
+        private final int[] row;
+        private final int[] col;
+
+        GoalTables(int n) {
+            row = new int[n * n + 1];
+            col = new int[n * n + 1];
+            for (int t = 1; t <= n * n; t++) {
+                row[t] = (t - 1) / n;
+                col[t] = (t - 1) % n;
+            }
+        }
+
+        // Returns the tables of dimension n. The fields are final, so a table is safely
+        // published even if two threads happen to create it at the same time.
+        static GoalTables of(int n) {
+            GoalTables tables = GOAL_TABLES[n];
+            if (tables == null) {
+                tables = new GoalTables(n);
+                GOAL_TABLES[n] = tables;
+            }
+            return tables;
+        }
+    }
 
     /**
      * The constructor creates a board from an n-by-n array of tiles, where tiles[row][col]
@@ -30,28 +81,47 @@ public class Board {
         // By the specification of Princeton we can assume that the puzzle inputs (i.e., the
         // arguments to the Board constructor and input to Solver) are valid. It however never
         // hurts to include some basic error checking. This error checking is far from complete!
-        if (tiles == null || tiles.length != tiles[0].length) {
+        if (tiles == null || tiles.length != tiles[0].length || tiles.length >= 128) {
             throw new IllegalArgumentException("The input is not valid.");
         }
 
         dimension = tiles.length;
-        this.board = makeImmutableCopy(tiles); // We will make the board immutable
+        goal = GoalTables.of(dimension);
+
+        // We will make the board immutable by copying the tiles into our own flat array
+        this.tiles = new short[dimension * dimension];
+        int blankPosition = 0;
+        int hammingSum = 0;
+        int manhattanSum = 0;
+        for (int p = 0; p < this.tiles.length; p++) {
+            int tile = tiles[p / dimension][p % dimension];
+            this.tiles[p] = (short) tile;
+            if (tile == 0) blankPosition = p;
+            hammingSum += hamming(tile, p);
+            manhattanSum += manhattan(tile, p);
+        }
+        blank = blankPosition;
+        hamming = hammingSum;
+        manhattan = manhattanSum;
     }
 
     /**
-     * Makes an immutable copy of the `tiles` array received by the constructor Board().
+     * Creates a board from a private copy of the tiles whose blank square and distances are
+     * already known.
      *
-     * @param tiles 2-dimensional array containing the tile entries
-     * @return copy of the `tiles` array
+     * @param board     the board whose dimension and goal tables are shared
+     * @param tiles     flat array containing the tile entries (not copied!)
+     * @param blank     position of the blank square
+     * @param hamming   Hamming distance of the board
+     * @param manhattan Manhattan distance of the board
      */
-    private int[][] makeImmutableCopy(int[][] tiles) {
-        int[][] copy = new int[tiles.length][tiles.length];
-        for (int i = 0; i < tiles.length; i++) {
-            for (int j = 0; j < tiles.length; j++) {
-                copy[i][j] = tiles[i][j];
-            }
-        }
-        return copy;
+    private Board(Board board, short[] tiles, int blank, int hamming, int manhattan) {
+        this.dimension = board.dimension;
+        this.goal = board.goal;
+        this.tiles = tiles;
+        this.blank = blank;
+        this.hamming = hamming;
+        this.manhattan = manhattan;
     }
 
     /**
@@ -66,7 +136,7 @@ public class Board {
         representation.append(dimension() + "\n");
         for (int i = 0; i < dimension(); i++) {
             for (int j = 0; j < dimension(); j++) {
-                representation.append(String.format("%d ", board[i][j]));
+                representation.append(String.format("%d ", tileAt(i, j)));
             }
             representation.append("\n");
         }
@@ -83,8 +153,28 @@ public class Board {
     }
 
     /**
-     * Calculates and returns the number of tiles out of place, i.e., the Hamming distance to the
-     * unique solution board
+     * Returns the tile at (row, col), where 0 designates the blank square.
+     *
+     * @param row 0-based row, 0 <= row <= n - 1
+     * @param col 0-based column, 0 <= col <= n - 1
+     * @return tile at (row, col)
+     */
+    int tileAt(int row, int col) {
+        return tiles[row * dimension + col];
+    }
+
+    /**
+     * Returns the position (row * n + col) of the blank square.
+     *
+     * @return position of the blank square
+     */
+    int blankPosition() {
+        return blank;
+    }
+
+    /**
+     * Returns the number of tiles out of place, i.e., the Hamming distance to the unique solution
+     * board
      * 1 2 3
      * 4 5 6
      * 7 8 0
@@ -93,29 +183,19 @@ public class Board {
      * @return Hamming distance to the solution board
      */
     public int hamming() {
-        int hamming = 0;
-        for (int i = 0; i < dimension(); i++) {
-            for (int j = 0; j < dimension(); j++) {
-                if (xyCoordinateTo1D(i, j) != board[i][j]) {
-                    hamming++;
-                }
-            }
-        }
-        // Recall that the empty tile should be at the bottom right of the solution. We will not
-        // treat it as a tile when computing the Hamming distance.
-        return hamming - 1;
+        return hamming;
     }
 
     /**
-     * Calculates the expected tile entry of the solution at position (i, j), where we will use
-     * Java's 0-based indexing!
+     * Returns the contribution of `tile` at position p to the Hamming distance: 1 if it is out of
+     * place, 0 otherwise. The empty tile is not considered.
      *
-     * @param i coordinate, 0 <= i <= n - 1
-     * @param j coordinate, 0 <= j <= n - 1
-     * @return expected tile entry at (i, j) with 0-based indexing
+     * @param tile the tile
+     * @param p    position, 0 <= p <= n^2 - 1
+     * @return 1 if the tile is out of place; 0 otherwise
      */
-    private int xyCoordinateTo1D(int i, int j) {
-        return i * dimension() + j + 1;
+    private static int hamming(int tile, int p) {
+        return tile != 0 && tile != p + 1 ? 1 : 0;
     }
 
     /**
@@ -125,28 +205,21 @@ public class Board {
      * @return Sum of Manhattan distances of board to goal board
      */
     public int manhattan() {
-        int manhattan = 0;
-        for (int i = 0; i < dimension(); i++) {
-            for (int j = 0; j < dimension(); j++) {
-                if (board[i][j] == 0) continue; // the empty tile is not considered
-                int[] correctCoordinates = numberToXYPosition(board[i][j]);
-                int xDiff = Math.abs(correctCoordinates[0] - i);
-                int yDiff = Math.abs(correctCoordinates[1] - j);
-                manhattan += xDiff + yDiff;
-            }
-        }
         return manhattan;
     }
 
     /**
-     * Return an array of size two specifying the correct coordinates (0-based) of the integer
-     * `num` in the goal board.
+     * Returns the Manhattan distance of `tile` at position p to its goal position. The empty tile
+     * is not considered.
      *
-     * @param num the tile number whose solution coordinates we are interested in
-     * @return solution coordinates of `num` (0-based!)
+     * @param tile the tile
+     * @param p    position, 0 <= p <= n^2 - 1
+     * @return Manhattan distance of the tile to its goal position
      */
-    private int[] numberToXYPosition(int num) {
-        return new int[] { (num - 1) / dimension(), (num - 1) % dimension() };
+    private int manhattan(int tile, int p) {
+        if (tile == 0) return 0;
+        return Math.abs(goal.row[tile] - goal.row[p + 1])
+                + Math.abs(goal.col[tile] - goal.col[p + 1]);
     }
 
     /**
@@ -185,18 +258,10 @@ public class Board {
 
         Board that = (Board) y;
 
-        if (that.dimension() != this.dimension()) return false;
-
-        // Could have also used Arrays.deepEquals()
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board.length; j++) {
-                if (that.board[i][j] != this.board[i][j]) {
-                    return false;
-                }
-            }
-        }
-
-        return true;
+        // Boards of different sizes have tile arrays of different lengths. Two boards with
+        // different distances or blank squares cannot be equal, which is cheap to check first.
+        if (that.blank != this.blank || that.manhattan != this.manhattan) return false;
+        return Arrays.equals(that.tiles, this.tiles);
     }
 
     // all neighboring boards
@@ -212,54 +277,45 @@ public class Board {
         Stack<Board> neighborStack = new Stack<>();
 
         // Get the coordinates of the empty tile
-        int[] emptyTile = emptyTile();
-        int i = emptyTile[0];
-        int j = emptyTile[1];
+        int i = goal.row[blank + 1];
+        int j = goal.col[blank + 1];
 
         // Depending on the position of the empty tile, we can have 2, 3, or 4 neighboring boards
         if (i > 0)
-            neighborStack.push(new Board(swap(i, j, i - 1, j)));
+            neighborStack.push(swapped(blank, blank - dimension));
         if (i < dimension() - 1)
-            neighborStack.push(new Board(swap(i, j, i + 1, j)));
+            neighborStack.push(swapped(blank, blank + dimension));
         if (j > 0)
-            neighborStack.push(new Board(swap(i, j, i, j - 1)));
+            neighborStack.push(swapped(blank, blank - 1));
         if (j < dimension() - 1)
-            neighborStack.push(new Board(swap(i, j, i, j + 1)));
+            neighborStack.push(swapped(blank, blank + 1));
 
         return neighborStack;
     }
 
     /**
-     * Return the coordinates of the empty tile in an array of size 2.
+     * Returns the board with the tiles at positions p1 and p2 swapped. Only the distances of the
+     * two swapped tiles are recomputed.
      *
-     * @return coordinate array of empty tile (0-based!)
+     * @param p1 position of the first tile
+     * @param p2 position of the second tile
+     * @return board with the two tiles swapped
      */
-    private int[] emptyTile() {
-        for (int i = 0; i < dimension(); i++) {
-            for (int j = 0; j < dimension(); j++) {
-                if (board[i][j] == 0) {
-                    return new int[] { i, j };
-                }
-            }
-        }
-        return new int[] { -1, -1 }; // this never happens for a correct game board
-    }
-
-    /**
-     * Swaps the tiles at coordinates (i1, j1) and (i2, j2), where the coordinates are 0-based.
-     *
-     * @param i1 first coordinate of first tile
-     * @param j1 second coordinate of first tile
-     * @param i2 first coordinate of second tile
-     * @param j2 second coordinate of second tile
-     * @return modified tile array
-     */
-    private int[][] swap(int i1, int j1, int i2, int j2) {
-        int[][] copy = makeImmutableCopy(board);
-        int tmp = copy[i1][j1];
-        copy[i1][j1] = copy[i2][j2];
-        copy[i2][j2] = tmp;
-        return copy;
+    private Board swapped(int p1, int p2) {
+        int tile1 = tiles[p1];
+        int tile2 = tiles[p2];
+        int newHamming = hamming
+                - hamming(tile1, p1) - hamming(tile2, p2)
+                + hamming(tile1, p2) + hamming(tile2, p1);
+        int newManhattan = manhattan
+                - manhattan(tile1, p1) - manhattan(tile2, p2)
+                + manhattan(tile1, p2) + manhattan(tile2, p1);
+
+        short[] copy = tiles.clone();
+        copy[p1] = (short) tile2;
+        copy[p2] = (short) tile1;
+        int newBlank = blank == p1 ? p2 : blank == p2 ? p1 : blank;
+        return new Board(this, copy, newBlank, newHamming, newManhattan);
     }
 
     /**
@@ -278,13 +334,10 @@ public class Board {
      * otherwise.
      */
     public Board twin() {
-
-        int[][] twinTiles = makeImmutableCopy(this.board);
-
-        if (twinTiles[0][0] != 0 && twinTiles[0][1] != 0)
-            return new Board(swap(0, 0, 0, 1));
+        if (blank != 0 && blank != 1)
+            return swapped(0, 1);
         else
-            return new Board(swap(1, 0, 1, 1));
+            return swapped(dimension, dimension + 1);
     }
 
     // Unit testing (not graded)
@@ -294,6 +347,14 @@ public class Board {
         Board newboard = new Board(newtry);
 
         System.out.println(newboard.twin().toString());
+
+        // The distances of the neighbors are updated incrementally
+        int[][] tiles = { { 8, 1, 3 }, { 4, 0, 2 }, { 7, 6, 5 } };
+        Board board = new Board(tiles);
+        System.out.println(board.hamming() + " " + board.manhattan());  // ==> 5 10
+        for (Board neighbor : board.neighbors()) {
+            System.out.println(neighbor.hamming() + " " + neighbor.manhattan());
+        }
     }
 
 }
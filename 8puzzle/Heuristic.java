@@ -0,0 +1,62 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+/**
+ * An admissible heuristic of the slider puzzle: a lower bound on the number of moves to solve an
+ * n-by-n board, which the Solver updates incrementally after every move.
+ * <p>
+ * The searches of the Solver keep a board as two int arrays: tiles[p] is the tile at position
+ * p = row * n + col (0 designates the blank square), and positionOf[t] is the position of tile t
+ * (positionOf[0] is the position of the blank square). A heuristic summarizes a board into a long
+ * "state", from which estimate() obtains the lower bound. After a move, move() derives the state
+ * of the new board from the state of the previous board by looking only at the moved tile (and,
+ * if necessary, the rows and columns it left and entered), so nothing is recomputed from scratch
+ * and nothing is allocated.
+ * <p>
+ * The estimate must never exceed the number of moves left, and must be 0 for the goal board.
+ * Implementations are immutable, so a single instance may be shared by many searches.
+ *
+ * @author Florian Woerz
+ */
+public interface Heuristic {
+
+    /**
+     * Returns the board dimension n of the heuristic.
+     *
+     * @return board dimension
+     */
+    int dimension();
+
+    /**
+     * Returns the state of a board.
+     *
+     * @param tiles      tiles[p] is the tile at position p
+     * @param positionOf positionOf[t] is the position of tile t
+     * @return the state of the board
+     */
+    long state(int[] tiles, int[] positionOf);
+
+    /**
+     * Returns the state of the board after the tile at position `from` slid into the blank square
+     * at position `to`. The arrays already describe the new board, i.e., the tile is at `to` and
+     * the blank square is at `from`.
+     *
+     * @param state      the state of the board before the move
+     * @param tiles      tiles[p] is the tile at position p (after the move)
+     * @param positionOf positionOf[t] is the position of tile t (after the move)
+     * @param from       the position of the moved tile before the move
+     * @param to         the position of the moved tile after the move
+     * @return the state of the board after the move
+     */
+    long move(long state, int[] tiles, int[] positionOf, int from, int to);
+
+    /**
+     * Returns the lower bound on the number of moves of a board.
+     *
+     * @param state the state of the board
+     * @return the lower bound
+     */
+    int estimate(long state);
+}
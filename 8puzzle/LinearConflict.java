@@ -0,0 +1,120 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The Manhattan distance plus linear conflicts as a Heuristic.
+ * <p>
+ * IDEA: Two tiles are in linear conflict if they are in their goal row (or column), but in the
+ * wrong order. One of them has to leave the row and come back, which costs 2 moves the Manhattan
+ * distance does not count. In general, if k tiles of a row are in their goal row, and at most m
+ * of them are in goal order (a longest increasing subsequence of their goal columns), then at
+ * least k - m of them have to leave the row. The heuristic adds 2 moves for every such tile of
+ * every row and every column. The extra moves of the rows are vertical and the ones of the
+ * columns are horizontal, so they never count the same move twice: the heuristic is admissible.
+ * <p>
+ * Incremental updates. The conflicts of a row only depend on the tiles whose goal row it is, and
+ * a vertical move does not change the order of the tiles within any column (the blank square does
+ * not count). Hence, a move changes at most one line: the goal row (or column) of the moved tile,
+ * if the tile left or entered it. move() recomputes only this line, in time proportional to n.
+ * <p>
+ * The longest increasing subsequence is computed by patience sorting, with the top cards of the
+ * piles kept in the bits of a long (which limits n to 64).
+ *
+ * @author Florian Woerz
+ */
+public class LinearConflict implements Heuristic {
+    private final int n;
+    private final ManhattanDistance manhattan;
+
+    /**
+     * Creates the Manhattan distance plus linear conflicts of n-by-n boards.
+     *
+     * @param n the board dimension
+     * @throws IllegalArgumentException unless 2 <= n <= 64
+     */
+    public LinearConflict(int n) {
+        if (n < 2 || n > 64) throw new IllegalArgumentException("n must be between 2 and 64.");
+        this.n = n;
+        manhattan = new ManhattanDistance(n);
+    }
+
+    @Override
+    public int dimension() {
+        return n;
+    }
+
+    @Override
+    public long state(int[] tiles, int[] positionOf) {
+        long sum = manhattan.state(tiles, positionOf);
+        for (int line = 0; line < n; line++) {
+            sum += 2 * conflicts(tiles, line, false, -1, -1);
+            sum += 2 * conflicts(tiles, line, true, -1, -1);
+        }
+        return sum;
+    }
+
+    @Override
+    public long move(long state, int[] tiles, int[] positionOf, int from, int to) {
+        int tile = tiles[to];
+        state = manhattan.move(state, tiles, positionOf, from, to);
+
+        // A vertical move may change the conflicts of the goal row of the tile, a horizontal move
+        // the ones of its goal column. The board before the move is the board after the move with
+        // the tiles at `from` and `to` swapped.
+        boolean vertical = from % n == to % n;
+        int goalLine = vertical ? (tile - 1) / n : (tile - 1) % n;
+        int fromLine = vertical ? from / n : from % n;
+        int toLine = vertical ? to / n : to % n;
+        if (fromLine != goalLine && toLine != goalLine) return state;
+        return state + 2 * (conflicts(tiles, goalLine, !vertical, -1, -1)
+                - conflicts(tiles, goalLine, !vertical, from, to));
+    }
+
+    @Override
+    public int estimate(long state) {
+        return (int) state;
+    }
+
+    // Returns the number of tiles that have to leave row `line` (or column `line`, if `column`)
+    // of the board, read with the tiles at positions a and b swapped
+    private int conflicts(int[] tiles, int line, boolean column, int a, int b) {
+        int count = 0;
+        long piles = 0;     // bit v is set if a pile has top card v
+        for (int i = 0; i < n; i++) {
+            int p = column ? i * n + line : line * n + i;
+            int tile = tiles[p == a ? b : p == b ? a : p];
+            if (tile == 0) continue;
+            int goalLine = column ? (tile - 1) % n : (tile - 1) / n;
+            if (goalLine != line) continue;
+
+            // Put the card on the leftmost pile whose top card is larger, or on a new pile
+            int value = column ? (tile - 1) / n : (tile - 1) % n;
+            long larger = piles & (-1L << value);
+            piles = (piles & ~Long.lowestOneBit(larger)) | (1L << value);
+            count++;
+        }
+        return count - Long.bitCount(piles);
+    }
+
+    // Some simple unit tests
+    public static void main(String[] args) {
+        int[] tiles = { 3, 2, 1, 4, 5, 6, 7, 8, 0 };
+        int[] positionOf = new int[9];
+        for (int p = 0; p < 9; p++) positionOf[tiles[p]] = p;
+        Heuristic linear = new LinearConflict(3);
+        long state = linear.state(tiles, positionOf);
+        StdOut.println(linear.estimate(state));                         // ==> 8
+
+        // slide tile 6 down into the blank square: no conflicts change
+        tiles[8] = 6;
+        tiles[5] = 0;
+        positionOf[6] = 8;
+        positionOf[0] = 5;
+        StdOut.println(linear.estimate(linear.move(state, tiles, positionOf, 5, 8)));
+        // ==> 9
+    }
+}
@@ -0,0 +1,90 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The Manhattan distance as a Heuristic: the sum of the vertical and horizontal distances from
+ * the tiles to their goal positions. Every move changes the distance of a single tile by 1, so it
+ * is consistent. The state is the distance itself, and move() only looks at the moved tile.
+ *
+ * @author Florian Woerz
+ */
+public class ManhattanDistance implements Heuristic {
+    private final int n;
+    private final int[] row;    // row[p] is the row of position p
+    private final int[] col;    // col[p] is the column of position p
+
+    /**
+     * Creates the Manhattan distance of n-by-n boards.
+     *
+     * @param n the board dimension
+     * @throws IllegalArgumentException unless 2 <= n < 128
+     */
+    public ManhattanDistance(int n) {
+        if (n < 2 || n >= 128) throw new IllegalArgumentException("n must be between 2 and 127.");
+        this.n = n;
+        row = new int[n * n];
+        col = new int[n * n];
+        for (int p = 0; p < n * n; p++) {
+            row[p] = p / n;
+            col[p] = p % n;
+        }
+    }
+
+    /**
+     * Returns the Manhattan distance of `tile` at position p to its goal position tile - 1.
+     *
+     * @param tile the tile, 1 <= tile <= n^2 - 1
+     * @param p    the position
+     * @return the Manhattan distance of the tile
+     */
+    int distance(int tile, int p) {
+        return Math.abs(row[p] - row[tile - 1]) + Math.abs(col[p] - col[tile - 1]);
+    }
+
+    @Override
+    public int dimension() {
+        return n;
+    }
+
+    @Override
+    public long state(int[] tiles, int[] positionOf) {
+        int sum = 0;
+        for (int p = 0; p < tiles.length; p++) {
+            if (tiles[p] != 0) sum += distance(tiles[p], p);
+        }
+        return sum;
+    }
+
+    @Override
+    public long move(long state, int[] tiles, int[] positionOf, int from, int to) {
+        int tile = tiles[to];
+        return state - distance(tile, from) + distance(tile, to);
+    }
+
+    @Override
+    public int estimate(long state) {
+        return (int) state;
+    }
+
+    // Some simple unit tests
+    public static void main(String[] args) {
+        int[] tiles = { 8, 1, 3, 4, 0, 2, 7, 6, 5 };
+        int[] positionOf = new int[9];
+        for (int p = 0; p < 9; p++) positionOf[tiles[p]] = p;
+        Heuristic manhattan = new ManhattanDistance(3);
+        long state = manhattan.state(tiles, positionOf);
+        StdOut.println(manhattan.estimate(state));                      // ==> 10
+
+        // slide tile 2 to the left into the blank square
+        tiles[4] = 2;
+        tiles[5] = 0;
+        positionOf[2] = 4;
+        positionOf[0] = 5;
+        StdOut.println(manhattan.estimate(manhattan.move(state, tiles, positionOf, 5, 4)));
+        // ==> 9
+    }
+}
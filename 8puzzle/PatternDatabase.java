@@ -0,0 +1,482 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An additive pattern database: a lower bound on the number of moves to solve an n-by-n board
+ * (2 <= n <= 5) that is much stronger than the Manhattan distance.
+ * <p>
+ * IDEA: The tiles are partitioned into disjoint groups, e.g., 6-6-3 for the 4-by-4 board. For
+ * every group, we consider the abstract puzzle in which all other tiles are indistinguishable
+ * from the blank square, and count only the moves of the tiles of the group. For every placement
+ * of the tiles of the group, the table of the group stores the fewest moves of these tiles to
+ * bring them to their goal positions. Every move of the real puzzle moves a tile of only one
+ * group, so the sum of the table entries of all groups never overestimates the number of moves
+ * left, i.e., it is admissible. (Since the tables ignore the blank square, it is not necessarily
+ * consistent: a single move may lower it by more than 1.)
+ * <p>
+ * Building. The tables are computed offline by a breadth-first search backwards from the goal
+ * placement. The position of the blank square matters only up to the region of non-group cells
+ * it lies in (within its region, the blank moves for free), so a search state is a placement
+ * together with the smallest cell of the region of the blank. The table stores the minimum over
+ * all regions, i.e., it does not depend on the position of the blank.
+ * <p>
+ * Storage. A placement of the k tiles of a group is ranked as a k-permutation of the n^2 cells,
+ * so the table of a group is a byte array of n^2! / (n^2 - k)! entries. It is stored as is in a
+ * file, and open() memory-maps the files: there is nothing to parse at startup, the operating
+ * system loads the pages on demand, and all processes share them.
+ * <p>
+ * Heuristic. As a Heuristic, the state of a board holds the table entries of all groups, 8 bits
+ * each (so a partition has at most 8 groups). A move changes only the entry of the group of the
+ * moved tile, which move() looks up again.
+ * <p>
+ * Performance. value() takes time proportional to the size of the group. The 6-6-3 tables of the
+ * 4-by-4 board take about 12 MB; the 5-5-5-5-4 tables of the 5-by-5 board take about 26 MB.
+ *
+ * @author Florian Woerz
+ */
+public class PatternDatabase implements Heuristic {
+
+    // bits per table entry in the state of a board (see state())
+    private static final int ENTRY_BITS = 8;
+
+    // default partitions of the tiles of the 3-by-3, 4-by-4, and 5-by-5 boards
+    private static final int[][] PARTITION_3 = {
+            { 1, 2, 3, 4 }, { 5, 6, 7, 8 }
+    };
+    private static final int[][] PARTITION_4 = {
+            { 1, 5, 6, 9, 10, 13 }, { 7, 8, 11, 12, 14, 15 }, { 2, 3, 4 }
+    };
+    private static final int[][] PARTITION_5 = {
+            { 1, 2, 3, 6, 7 }, { 4, 5, 8, 9, 10 }, { 11, 12, 13, 16, 17 },
+            { 14, 15, 18, 19, 20 }, { 21, 22, 23, 24 }
+    };
+
+    private final int n;
+    private final int[][] groups;       // the tiles of every group
+    private final int[] groupOf;        // the group of every tile; -1 if it is in none
+    private final ByteBuffer[] tables;  // the (memory-mapped) table of every group
+
+    private PatternDatabase(int n, int[][] groups, ByteBuffer[] tables) {
+        this.n = n;
+        this.groups = groups;
+        this.tables = tables;
+        groupOf = new int[n * n];
+        Arrays.fill(groupOf, -1);
+        for (int g = 0; g < groups.length; g++) {
+            for (int tile : groups[g]) groupOf[tile] = g;
+        }
+    }
+
+    /**
+     * Builds the tables of the default partition of the n-by-n board and writes them into the
+     * directory (which is created if necessary). Existing tables are overwritten.
+     *
+     * @param directory the directory of the table files
+     * @param n         the board dimension, 3 <= n <= 5
+     * @throws IllegalArgumentException if directory is null or n is out of range
+     * @throws UncheckedIOException     if a file cannot be written
+     */
+    public static void build(Path directory, int n) {
+        build(directory, n, defaultPartition(n));
+    }
+
+    /**
+     * Builds the tables of the given partition of the n-by-n board and writes them into the
+     * directory (which is created if necessary). Existing tables are overwritten.
+     *
+     * @param directory the directory of the table files
+     * @param n         the board dimension, 2 <= n <= 5
+     * @param partition the groups of tiles; disjoint, with tiles between 1 and n^2 - 1, and at
+     *                  most 7 tiles per group for n = 4 (5 for n = 5)
+     * @throws IllegalArgumentException if directory is null, n is out of range, or the partition
+     *                                  is not valid
+     * @throws UncheckedIOException     if a file cannot be written
+     */
+    public static void build(Path directory, int n, int[][] partition) {
+        if (directory == null) throw new IllegalArgumentException("directory cannot be null.");
+        validate(n, partition);
+        try {
+            Files.createDirectories(directory);
+            for (int[] group : partition) {
+                byte[] table = new Builder(n, group).build();
+                Files.write(directory.resolve(fileName(n, group)), table);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Memory-maps the tables of the default partition of the n-by-n board from the directory.
+     *
+     * @param directory the directory of the table files
+     * @param n         the board dimension, 3 <= n <= 5
+     * @return the pattern database
+     * @throws IllegalArgumentException if directory is null or n is out of range
+     * @throws UncheckedIOException     if a file is missing, has the wrong size, or cannot be read
+     */
+    public static PatternDatabase open(Path directory, int n) {
+        return open(directory, n, defaultPartition(n));
+    }
+
+    /**
+     * Memory-maps the tables of the given partition of the n-by-n board from the directory.
+     *
+     * @param directory the directory of the table files
+     * @param n         the board dimension, 2 <= n <= 5
+     * @param partition the groups of tiles; disjoint, with tiles between 1 and n^2 - 1
+     * @return the pattern database
+     * @throws IllegalArgumentException if directory is null, n is out of range, or the partition
+     *                                  is not valid
+     * @throws UncheckedIOException     if a file is missing, has the wrong size, or cannot be read
+     */
+    public static PatternDatabase open(Path directory, int n, int[][] partition) {
+        if (directory == null) throw new IllegalArgumentException("directory cannot be null.");
+        validate(n, partition);
+        int[][] groups = new int[partition.length][];
+        ByteBuffer[] tables = new ByteBuffer[partition.length];
+        for (int g = 0; g < partition.length; g++) {
+            groups[g] = partition[g].clone();
+            Path file = directory.resolve(fileName(n, groups[g]));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = permutations(n * n, groups[g].length);
+                if (channel.size() != size)
+                    throw new IOException(file + " has " + channel.size() + " instead of "
+                                                  + size + " bytes.");
+                tables[g] = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new PatternDatabase(n, groups, tables);
+    }
+
+    /**
+     * Returns the board dimension n of the database.
+     *
+     * @return board dimension
+     */
+    @Override
+    public int dimension() {
+        return n;
+    }
+
+    /**
+     * Returns the number of groups of the partition.
+     *
+     * @return number of groups
+     */
+    public int groups() {
+        return groups.length;
+    }
+
+    /**
+     * Returns the group of the tile.
+     *
+     * @param tile the tile, 1 <= tile <= n^2 - 1
+     * @return the group of the tile; -1 if it is in no group
+     */
+    public int groupOf(int tile) {
+        return groupOf[tile];
+    }
+
+    /**
+     * Returns the fewest moves of the tiles of the group to their goal positions.
+     *
+     * @param group      the group
+     * @param positionOf positionOf[tile] is the position (row * n + col) of the tile
+     * @return the table entry of the placement of the group
+     */
+    public int value(int group, int[] positionOf) {
+        final int cells = n * n;
+        int rank = 0;
+        int used = 0;
+        int[] tiles = groups[group];
+        for (int i = 0; i < tiles.length; i++) {
+            int p = positionOf[tiles[i]];
+            rank = rank * (cells - i) + p - Integer.bitCount(used & ((1 << p) - 1));
+            used |= 1 << p;
+        }
+        return tables[group].get(rank) & 0xFF;
+    }
+
+    /**
+     * Returns the sum of the table entries of all groups, a lower bound on the number of moves.
+     *
+     * @param positionOf positionOf[tile] is the position (row * n + col) of the tile
+     * @return the lower bound
+     */
+    public int lowerBound(int[] positionOf) {
+        int sum = 0;
+        for (int g = 0; g < groups.length; g++) {
+            sum += value(g, positionOf);
+        }
+        return sum;
+    }
+
+    @Override
+    public long state(int[] tiles, int[] positionOf) {
+        long state = 0;
+        for (int g = 0; g < groups.length; g++) {
+            state |= (long) value(g, positionOf) << (ENTRY_BITS * g);
+        }
+        return state;
+    }
+
+    @Override
+    public long move(long state, int[] tiles, int[] positionOf, int from, int to) {
+        int g = groupOf[tiles[to]];
+        if (g < 0) return state;
+        long mask = 0xFFL << (ENTRY_BITS * g);
+        return state & ~mask | (long) value(g, positionOf) << (ENTRY_BITS * g);
+    }
+
+    @Override
+    public int estimate(long state) {
+        int sum = 0;
+        for (int g = 0; g < groups.length; g++) {
+            sum += (int) (state >>> (ENTRY_BITS * g)) & 0xFF;
+        }
+        return sum;
+    }
+
+    // Returns the default partition of the n-by-n board
+    private static int[][] defaultPartition(int n) {
+        switch (n) {
+            case 3:  return PARTITION_3;
+            case 4:  return PARTITION_4;
+            case 5:  return PARTITION_5;
+            default: throw new IllegalArgumentException("No default partition for n = " + n);
+        }
+    }
+
+    // Checks that the partition of the tiles of the n-by-n board is valid
+    private static void validate(int n, int[][] partition) {
+        if (n < 2 || n > 5) throw new IllegalArgumentException("n must be between 2 and 5.");
+        if (partition == null || partition.length == 0)
+            throw new IllegalArgumentException("The partition is empty.");
+        if (partition.length > Long.SIZE / ENTRY_BITS)
+            throw new IllegalArgumentException("The partition has more than 8 groups.");
+        boolean[] seen = new boolean[n * n];
+        for (int[] group : partition) {
+            if (group == null || group.length == 0)
+                throw new IllegalArgumentException("The partition contains an empty group.");
+            // The search states (placement rank, cell of the blank's region) must fit into an int
+            if (permutations(n * n, group.length) * (n * n) > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("A group is too large: " + group.length);
+            for (int tile : group) {
+                if (tile < 1 || tile >= n * n || seen[tile])
+                    throw new IllegalArgumentException("Invalid or repeated tile: " + tile);
+                seen[tile] = true;
+            }
+        }
+    }
+
+    // Returns the name of the table file of the group
+    private static String fileName(int n, int[] group) {
+        StringBuilder name = new StringBuilder("pdb-" + n + "x" + n);
+        for (int tile : group) name.append('-').append(tile);
+        return name.append(".bin").toString();
+    }
+
+    // Returns the number of k-permutations of m cells, i.e., m! / (m - k)!
+    private static long permutations(int m, int k) {
+        long count = 1;
+        for (int i = 0; i < k; i++) count *= m - i;
+        return count;
+    }
+
+    // Breadth-first search over the abstract puzzle of one group
+    private static final class Builder {
+        private static final int UNSEEN = 0xFF;
+
+        private final int n;
+        private final int cells;
+        private final int[] group;
+        private final int all;          // mask of all cells
+        private final int notFirstCol;  // mask of the cells not in the first column
+        private final int notLastCol;   // mask of the cells not in the last column
+        private final int[] adjacent;   // adjacent[c] is the mask of the cells adjacent to c
+
+        Builder(int n, int[] group) {
+            this.n = n;
+            this.cells = n * n;
+            this.group = group;
+            all = (1 << cells) - 1;
+            int firstCol = 0;
+            for (int row = 0; row < n; row++) firstCol |= 1 << (row * n);
+            notFirstCol = all & ~firstCol;
+            notLastCol = all & ~(firstCol << (n - 1));
+            adjacent = new int[cells];
+            for (int c = 0; c < cells; c++) adjacent[c] = grow(1 << c) & ~(1 << c);
+        }
+
+        // Returns the region with the cells adjacent to it
+        private int grow(int region) {
+            return (region | (region >>> n) | (region << n)
+                    | ((region & notFirstCol) >>> 1) | ((region & notLastCol) << 1)) & all;
+        }
+
+        // Returns the region of the free cells reachable from the cells of `start`
+        private int flood(int start, int free) {
+            int region = start;
+            while (true) {
+                int grown = grow(region) & free;
+                if (grown == region) return region;
+                region = grown;
+            }
+        }
+
+        // Returns the rank of the placement among all k-permutations of the cells
+        private int rank(int[] position) {
+            int rank = 0;
+            int used = 0;
+            for (int i = 0; i < position.length; i++) {
+                int p = position[i];
+                rank = rank * (cells - i) + p - Integer.bitCount(used & ((1 << p) - 1));
+                used |= 1 << p;
+            }
+            return rank;
+        }
+
+        // Stores the placement of the given rank in `position`
+        private void unrank(int rank, int[] position) {
+            final int k = position.length;
+            for (int i = k - 1; i >= 0; i--) {
+                position[i] = rank % (cells - i);   // temporarily: index among the unused cells
+                rank /= cells - i;
+            }
+            int used = 0;
+            for (int i = 0; i < k; i++) {
+                int c = -1;
+                for (int d = position[i]; d >= 0; d--) {
+                    c++;
+                    while ((used & (1 << c)) != 0) c++;
+                }
+                position[i] = c;
+                used |= 1 << c;
+            }
+        }
+
+        byte[] build() {
+            final int k = group.length;
+            int ranks = (int) permutations(cells, k);
+            byte[] table = new byte[ranks];
+            Arrays.fill(table, (byte) UNSEEN);
+            long[] visited = new long[(int) (((long) ranks * cells + 63) / 64)];
+
+            // Search states rank * cells + (smallest cell of the region of the blank), in BFS order
+            int[] queue = new int[1 << 16];
+            int head = 0;
+            int tail = 0;
+
+            int[] position = new int[k];
+            int occupied = 0;
+            for (int i = 0; i < k; i++) {
+                position[i] = group[i] - 1;
+                occupied |= 1 << position[i];
+            }
+            int region = flood(1 << (cells - 1), all & ~occupied);
+            int start = rank(position);
+            long state = (long) start * cells + Integer.numberOfTrailingZeros(region);
+            visited[(int) (state >>> 6)] |= 1L << state;
+            table[start] = 0;
+            queue[tail++] = (int) state;
+
+            for (int depth = 0; head < tail; depth++) {
+                int levelEnd = tail;
+                while (head < levelEnd) {
+                    int current = queue[head++];
+                    unrank(current / cells, position);
+                    occupied = 0;
+                    for (int i = 0; i < k; i++) occupied |= 1 << position[i];
+                    region = flood(1 << (current % cells), all & ~occupied);
+
+                    // Move a tile of the group into an adjacent cell of the region of the blank
+                    for (int i = 0; i < k; i++) {
+                        int from = position[i];
+                        for (int targets = adjacent[from] & region; targets != 0;
+                             targets &= targets - 1) {
+                            int to = Integer.numberOfTrailingZeros(targets);
+                            position[i] = to;
+                            int moved = occupied ^ (1 << from) ^ (1 << to);
+                            int blankRegion = flood(1 << from, all & ~moved);
+                            int r = rank(position);
+                            long next = (long) r * cells
+                                    + Integer.numberOfTrailingZeros(blankRegion);
+                            if ((visited[(int) (next >>> 6)] & (1L << next)) == 0) {
+                                visited[(int) (next >>> 6)] |= 1L << next;
+                                if ((table[r] & 0xFF) == UNSEEN) table[r] = (byte) (depth + 1);
+                                if (tail == queue.length) {
+                                    // discard the processed part of the queue, or grow it
+                                    System.arraycopy(queue, head, queue, 0, tail - head);
+                                    levelEnd -= head;
+                                    tail -= head;
+                                    head = 0;
+                                    if (2 * tail > queue.length)
+                                        queue = Arrays.copyOf(queue, 2 * queue.length);
+                                }
+                                queue[tail++] = (int) next;
+                            }
+                        }
+                        position[i] = from;
+                    }
+                }
+            }
+
+            // Unreachable placements (if any) get the trivial lower bound
+            for (int r = 0; r < ranks; r++) {
+                if ((table[r] & 0xFF) == UNSEEN) table[r] = 0;
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Builds the tables of the default partition of the n-by-n board into a directory (unless they
+     * exist), maps them, and prints the lower bound of a few boards.
+     *
+     * % java PatternDatabase pdb 4
+     * built the tables in 18.0 s
+     * goal: 0
+     * ...
+     */
+    public static void main(String[] args) {
+        Path directory = Paths.get(args[0]);
+        int n = Integer.parseInt(args[1]);
+
+        boolean exists = true;
+        for (int[] group : defaultPartition(n)) {
+            exists = exists && Files.exists(directory.resolve(fileName(n, group)));
+        }
+        if (!exists) {
+            long start = System.nanoTime();
+            build(directory, n);
+            StdOut.printf("built the tables in %.1f s%n", (System.nanoTime() - start) / 1e9);
+        }
+        PatternDatabase database = open(directory, n);
+
+        // The goal board, and the goal board with the last row shifted to the right
+        int[] positionOf = new int[n * n];
+        for (int tile = 1; tile < n * n; tile++) positionOf[tile] = tile - 1;
+        StdOut.println("goal: " + database.lowerBound(positionOf));            // ==> 0
+        for (int tile = n * n - n + 1; tile < n * n; tile++) positionOf[tile] = tile;
+        StdOut.println("shifted: " + database.lowerBound(positionOf));         // ==> n - 1
+    }
+}
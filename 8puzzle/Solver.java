@@ -1,48 +1,851 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
 import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.MinPQ;
+import edu.princeton.cs.algs4.Queue;
+import edu.princeton.cs.algs4.Stack;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Solves the slider puzzle with the A* search algorithm, using the Manhattan priority function
+ * (unless another Heuristic is given).
+ * <p>
+ * A search node consists of a board, the number of moves made to reach the board, and the
+ * previous search node. We insert the initial search node into a priority queue (MinPQ), ordered by
+ * the priority moves + manhattan. Then we repeatedly delete the search node with the minimum
+ * priority and insert all of its neighboring search nodes, except for the board of the previous
+ * search node. When the goal board is dequeued, the moves of its search node are a shortest
+ * solution, since the Manhattan distance never overestimates the number of moves left.
+ * <p>
+ * Packed boards. For n <= 4, the n^2 tiles of a board fit into a single long with 4 bits per tile
+ * (the tile at position i = row * n + col in bits 4i to 4i + 3). The search nodes then hold this
+ * long, the position of the blank square, the state of the heuristic, and a few ints instead of a
+ * Board object: a move is a few bit operations, and the heuristic of a neighbor is obtained from
+ * the one of its parent by only looking at the tile that moved (on a board that is unpacked into
+ * two int arrays once per expanded search node). Board objects are created only by solution().
+ * Larger boards are searched with Board objects.
+ * <p>
+ * Transposition table. The same board is often reached along different paths. For packed boards,
+ * a LongIntHashMap maps every packed board seen so far to the fewest moves it has been reached
+ * with. A neighbor is only inserted if it improves on that number, and a search node is skipped
+ * when it is dequeued if its board has been reached with fewer moves in the meantime. With a
+ * consistent heuristic such as the Manhattan distance, a board is never expanded twice; with an
+ * inconsistent one, a board is expanded again whenever it is reached with fewer moves, so the
+ * first goal board dequeued is still reached on a shortest path. This replaces the check
+ * against the board of the previous search node, and the table stores no Board objects and
+ * boxes nothing.
+ * <p>
+ * IDA* mode. A* keeps all search nodes of the frontier in memory, which exhausts the heap for
+ * hard 4-by-4 (and most 5-by-5) boards. With Mode.IDA_STAR, the solver instead runs an
+ * iterative-deepening depth-first search: it explores all paths whose priority moves + heuristic
+ * does not exceed a bound, starting with the heuristic of the initial board, and raises the
+ * bound to the smallest priority that exceeded it until the goal board is found. The first
+ * solution found is a shortest one. The search moves the tiles of a single int[] board and undoes
+ * each move on return (never moving a tile straight back), and only keeps the positions of the
+ * blank square along the current path, so it uses memory proportional to the number of moves.
+ * <p>
+ * Heuristics. For hard 4-by-4 and 5-by-5 boards, even IDA* with the Manhattan distance expands
+ * billions of boards. Both searches accept any admissible Heuristic instead: LinearConflict,
+ * WalkingDistance, or a PatternDatabase (in decreasing order of expanded boards). A Heuristic
+ * updates its estimate incrementally after every move.
+ * <p>
+ * Parallel A* mode. With Mode.PARALLEL_A_STAR, several worker threads search packed boards
+ * (hash-distributed A*, HDA*). Every board is owned by one worker, chosen by a hash of the packed
+ * board, and only its owner keeps it in its open set (a MinPQ) and its transposition table, so
+ * the workers share no data structures and take no locks. A worker sends the neighbors it
+ * generates to their owners through lock-free queues (ConcurrentLinkedQueue). The goal board is
+ * not final when it is first reached, since other workers may still hold search nodes with lower
+ * priorities: the search keeps the best solution so far and ends once no worker holds a search
+ * node whose priority is below its number of moves, and no search node is in transit (counted by
+ * a single AtomicLong). Hence, the solution is still a shortest one. A worker without search
+ * nodes parks until another worker sends it one. Larger boards are searched as in Mode.A_STAR.
+ * <p>
+ * Solvability. Instead of solving the twin board in lockstep, we use the following invariant:
+ * For odd n, a board is solvable if and only if the number of inversions (pairs of tiles that are
+ * in the wrong order in row-major order, ignoring the blank square) is even. For even n, it is
+ * solvable if and only if the number of inversions plus the row of the blank square is odd.
+ *
+ * @author Florian Woerz
+ */
 public class Solver {
 
-    // find a solution to the initial board (using the A* algorithm)
+    // largest dimension whose boards fit into a long with 4 bits per tile
+    private static final int MAX_PACKED_DIMENSION = 4;
+
+    // initial capacity of the transposition table (it grows as needed)
+    private static final int INITIAL_TABLE_SIZE = 1 << 12;
+
+    /**
+     * The search algorithms of the solver.
+     */
+    public enum Mode {
+        /** A* search (the default); fast, but keeps all frontier boards in memory */
+        A_STAR,
+        /** IDA* search; slower, but uses memory proportional to the number of moves */
+        IDA_STAR,
+        /** A* search by one worker thread per processor (boards up to 4-by-4) */
+        PARALLEL_A_STAR
+    }
+
+    private final int n;
+    private final boolean solvable;
+    private final Board initial;
+    private final PackedNode packedGoal;    // search node of the goal board (A*, n <= 4)
+    private final BoardNode boardGoal;      // search node of the goal board (A*, n > 4)
+    private final int[] blankPath;          // positions of the blank square (IDA*)
+
+    /**
+     * Finds a solution to the initial board (using the A* algorithm).
+     *
+     * @param initial the initial board
+     * @throws IllegalArgumentException if initial is null
+     */
     public Solver(Board initial) {
+        this(initial, Mode.A_STAR);
+    }
+
+    /**
+     * Finds a solution to the initial board, using the given search algorithm.
+     *
+     * @param initial the initial board
+     * @param mode    the search algorithm
+     * @throws IllegalArgumentException if initial or mode is null
+     */
+    public Solver(Board initial, Mode mode) {
+        this(initial, mode, manhattan(initial));
+    }
+
+    /**
+     * Finds a solution to the initial board with IDA*, guided by the pattern database (which must
+     * have been opened for boards of the same dimension).
+     *
+     * @param initial  the initial board
+     * @param database the pattern database
+     * @throws IllegalArgumentException if initial or database is null, or if the dimension of the
+     *                                  database differs from the one of the initial board
+     */
+    public Solver(Board initial, PatternDatabase database) {
+        this(initial, Mode.IDA_STAR, database);
+    }
+
+    /**
+     * Finds a solution to the initial board, using the given search algorithm and heuristic (which
+     * must be for boards of the same dimension).
+     *
+     * @param initial   the initial board
+     * @param mode      the search algorithm
+     * @param heuristic the heuristic
+     * @throws IllegalArgumentException if any argument is null, or if the dimension of the
+     *                                  heuristic differs from the one of the initial board
+     */
+    public Solver(Board initial, Mode mode, Heuristic heuristic) {
+        this(initial, mode, heuristic, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Finds a solution to the initial board with parallel A* and the given number of worker
+     * threads, using the given heuristic (which must be for boards of the same dimension).
+     *
+     * @param initial   the initial board
+     * @param heuristic the heuristic
+     * @param threads   the number of worker threads
+     * @throws IllegalArgumentException if initial or heuristic is null, if the dimension of the
+     *                                  heuristic differs from the one of the initial board, or if
+     *                                  threads < 1
+     */
+    public Solver(Board initial, Heuristic heuristic, int threads) {
+        this(initial, Mode.PARALLEL_A_STAR, heuristic, threads);
+    }
+
+    // Finds a solution with the given mode, heuristic, and (in parallel mode) number of threads
+    private Solver(Board initial, Mode mode, Heuristic heuristic, int threads) {
+        if (initial == null) throw new IllegalArgumentException("The initial board is null.");
+        if (mode == null) throw new IllegalArgumentException("The mode is null.");
+        if (heuristic == null) throw new IllegalArgumentException("The heuristic is null.");
+        if (heuristic.dimension() != initial.dimension())
+            throw new IllegalArgumentException("The heuristic is for boards of dimension "
+                                                       + heuristic.dimension());
+        if (threads < 1) throw new IllegalArgumentException("The number of threads must be >= 1.");
+        n = initial.dimension();
+        solvable = isSolvable(initial);
+        this.initial = initial;
 
+        if (!solvable) {
+            packedGoal = null;
+            boardGoal = null;
+            blankPath = null;
+        }
+        else if (mode == Mode.IDA_STAR) {
+            packedGoal = null;
+            boardGoal = null;
+            blankPath = new IdaSearch(initial, heuristic).solve();
+        }
+        else if (mode == Mode.PARALLEL_A_STAR && n <= MAX_PACKED_DIMENSION) {
+            packedGoal = new ParallelSearch(n, heuristic, threads).solve(initial);
+            boardGoal = null;
+            blankPath = null;
+        }
+        else if (n <= MAX_PACKED_DIMENSION) {
+            packedGoal = solvePacked(initial, heuristic);
+            boardGoal = null;
+            blankPath = null;
+        }
+        else {
+            packedGoal = null;
+            boardGoal = solveBoards(initial, heuristic);
+            blankPath = null;
+        }
     }
 
-    // is the initial board solvable? (see below)
+    // Returns the Manhattan distance of boards of the dimension of the initial board
+    private static Heuristic manhattan(Board initial) {
+        if (initial == null) throw new IllegalArgumentException("The initial board is null.");
+        return new ManhattanDistance(initial.dimension());
+    }
+
+    /**
+     * Is the initial board solvable?
+     *
+     * @return true if the initial board is solvable; false otherwise
+     */
     public boolean isSolvable() {
-        return false;
+        return solvable;
     }
 
-    // min number of moves to solve initial board; -1 if unsolvable
+    /**
+     * Returns the minimum number of moves to solve the initial board; -1 if unsolvable.
+     *
+     * @return minimum number of moves
+     */
     public int moves() {
-        return 0;
+        if (!solvable) return -1;
+        if (blankPath != null) return blankPath.length - 1;
+        return packedGoal != null ? packedGoal.moves : boardGoal.moves;
     }
 
-    // sequence of boards in a shortest solution; null if unsolvable
+    /**
+     * Returns the sequence of boards in a shortest solution, from the initial to the goal board;
+     * null if unsolvable.
+     *
+     * @return sequence of boards
+     */
     public Iterable<Board> solution() {
-        return null;
+        if (!solvable) return null;
+        if (blankPath != null) return replay(blankPath);
+        Stack<Board> solution = new Stack<>();
+        for (PackedNode node = packedGoal; node != null; node = node.previous) {
+            solution.push(unpack(node.tiles));
+        }
+        for (BoardNode node = boardGoal; node != null; node = node.previous) {
+            solution.push(node.board);
+        }
+        return solution;
     }
 
-    // test client (see below)
+    // Returns the boards obtained from the initial board by moving the blank square along the path
+    private Iterable<Board> replay(int[] path) {
+        int[][] tiles = new int[n][n];
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                tiles[row][col] = initial.tileAt(row, col);
+            }
+        }
+
+        Queue<Board> solution = new Queue<>();
+        solution.enqueue(initial);
+        for (int k = 1; k < path.length; k++) {
+            int from = path[k - 1];
+            int to = path[k];
+            tiles[from / n][from % n] = tiles[to / n][to % n];
+            tiles[to / n][to % n] = 0;
+            solution.enqueue(new Board(tiles));
+        }
+        return solution;
+    }
+
+    // Copies the tiles of the board into tiles[] (in row-major order) and their positions into
+    // positionOf[]
+    private static void copyTiles(Board board, int[] tiles, int[] positionOf) {
+        final int n = board.dimension();
+        for (int position = 0; position < n * n; position++) {
+            tiles[position] = board.tileAt(position / n, position % n);
+            positionOf[tiles[position]] = position;
+        }
+    }
+
+    // Slides the tile at position `from` into the blank square at position `to`
+    private static void slide(int[] tiles, int[] positionOf, int from, int to) {
+        int tile = tiles[from];
+        tiles[to] = tile;
+        tiles[from] = 0;
+        positionOf[tile] = to;
+        positionOf[0] = from;
+    }
+
+    // Is the board solvable? (see the class comment)
+    private static boolean isSolvable(Board board) {
+        final int n = board.dimension();
+        int[] tiles = new int[n * n - 1];   // the tiles in row-major order, without the blank
+        int k = 0;
+        int blankRow = 0;
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                if (board.tileAt(row, col) == 0) blankRow = row;
+                else tiles[k++] = board.tileAt(row, col);
+            }
+        }
+
+        int inversions = 0;
+        for (int i = 0; i < tiles.length; i++) {
+            for (int j = i + 1; j < tiles.length; j++) {
+                if (tiles[i] > tiles[j]) inversions++;
+            }
+        }
+
+        if (n % 2 == 1) return inversions % 2 == 0;
+        return (inversions + blankRow) % 2 == 1;
+    }
+
+    /* *************************************************************************
+     *  A* search on packed boards (n <= 4)
+     **************************************************************************/
+
+    // Search node with a packed board
+    private static final class PackedNode implements Comparable<PackedNode> {
+        private final long tiles;
+        private final int blank;        // position of the blank square
+        private final int moves;
+        private final int estimate;     // estimate of the heuristic
+        private final long state;       // state of the heuristic
+        private final PackedNode previous;
+
+        PackedNode(long tiles, int blank, int moves, int estimate, long state,
+                   PackedNode previous) {
+            this.tiles = tiles;
+            this.blank = blank;
+            this.moves = moves;
+            this.estimate = estimate;
+            this.state = state;
+            this.previous = previous;
+        }
+
+        // Orders by priority, breaking ties in favor of the node closer to the goal
+        @Override
+        public int compareTo(PackedNode that) {
+            int cmp = Integer.compare(this.moves + this.estimate, that.moves + that.estimate);
+            if (cmp != 0) return cmp;
+            return Integer.compare(this.estimate, that.estimate);
+        }
+    }
+
+    // Returns the search node of the goal board reached from the initial board on a shortest path
+    private PackedNode solvePacked(Board initial, Heuristic heuristic) {
+        final int size = n * n;
+        int[] tiles = new int[size];        // the unpacked board of the expanded search node
+        int[] positionOf = new int[size];
+        copyTiles(initial, tiles, positionOf);
+
+        long packed = pack(tiles);
+        long goal = packedGoalBoard(n);
+        long state = heuristic.state(tiles, positionOf);
+
+        MinPQ<PackedNode> pq = new MinPQ<>();
+        LongIntHashMap bestMoves = new LongIntHashMap(INITIAL_TABLE_SIZE);
+        pq.insert(new PackedNode(packed, positionOf[0], 0, heuristic.estimate(state), state, null));
+        bestMoves.put(packed, 0);
+        while (true) {
+            PackedNode node = pq.delMin();
+            if (node.moves > bestMoves.get(node.tiles, Integer.MAX_VALUE)) continue; // outdated
+            if (node.tiles == goal) return node;
+
+            unpack(node.tiles, tiles, positionOf);
+            int row = node.blank / n;
+            int col = node.blank % n;
+            if (row > 0)
+                insertMove(pq, bestMoves, heuristic, node, node.blank - n, tiles, positionOf);
+            if (row < n - 1)
+                insertMove(pq, bestMoves, heuristic, node, node.blank + n, tiles, positionOf);
+            if (col > 0)
+                insertMove(pq, bestMoves, heuristic, node, node.blank - 1, tiles, positionOf);
+            if (col < n - 1)
+                insertMove(pq, bestMoves, heuristic, node, node.blank + 1, tiles, positionOf);
+        }
+    }
+
+    // Inserts the neighbor of `node` obtained by sliding the tile at `position` into the blank
+    // square, unless its board has already been reached with as few moves; tiles[] and
+    // positionOf[] hold the board of `node`
+    private static void insertMove(MinPQ<PackedNode> pq, LongIntHashMap bestMoves,
+                                   Heuristic heuristic, PackedNode node, int position,
+                                   int[] tiles, int[] positionOf) {
+        int tile = tiles[position];
+        long packed = node.tiles & ~(0xFL << (4 * position)) | ((long) tile << (4 * node.blank));
+        int moves = node.moves + 1;
+        if (bestMoves.get(packed, Integer.MAX_VALUE) <= moves) return;
+        bestMoves.put(packed, moves);
+
+        // Make the move on the unpacked board only for the heuristic, and undo it
+        slide(tiles, positionOf, position, node.blank);
+        long state = heuristic.move(node.state, tiles, positionOf, position, node.blank);
+        slide(tiles, positionOf, node.blank, position);
+        pq.insert(new PackedNode(packed, position, moves, heuristic.estimate(state), state, node));
+    }
+
+    // Returns the packed board of the tiles (in row-major order)
+    private static long pack(int[] tiles) {
+        long packed = 0;
+        for (int position = 0; position < tiles.length; position++) {
+            packed |= (long) tiles[position] << (4 * position);
+        }
+        return packed;
+    }
+
+    // Returns the packed goal board of dimension n
+    private static long packedGoalBoard(int n) {
+        final int size = n * n;
+        long goal = 0;
+        for (int position = 0; position < size; position++) {
+            goal |= (long) ((position + 1) % size) << (4 * position);
+        }
+        return goal;
+    }
+
+    // Copies the tiles of a packed board into tiles[] and their positions into positionOf[]
+    private static void unpack(long packed, int[] tiles, int[] positionOf) {
+        for (int position = 0; position < tiles.length; position++) {
+            tiles[position] = (int) (packed >>> (4 * position)) & 0xF;
+            positionOf[tiles[position]] = position;
+        }
+    }
+
+    // Creates the Board object of a packed board
+    private Board unpack(long packed) {
+        int[][] tiles = new int[n][n];
+        for (int position = 0; position < n * n; position++) {
+            tiles[position / n][position % n] = (int) (packed >>> (4 * position)) & 0xF;
+        }
+        return new Board(tiles);
+    }
+
+    /* *************************************************************************
+     *  Parallel A* search on packed boards (n <= 4)
+     **************************************************************************/
+
+    // Hash-distributed A* search: every packed board is owned by the worker given by its hash
+    private static final class ParallelSearch {
+        private final int n;
+        private final long goal;                // the packed goal board
+        private final Heuristic heuristic;
+        private final Worker[] workers;
+
+        // best search node of the goal board found so far; null if none
+        private final AtomicReference<PackedNode> incumbent = new AtomicReference<>();
+
+        // number of active workers plus number of search nodes sent but not yet received
+        private final AtomicLong work = new AtomicLong();
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private volatile boolean cancelled;     // stop all workers (after an exception)
+
+        ParallelSearch(int n, Heuristic heuristic, int threads) {
+            this.n = n;
+            this.heuristic = heuristic;
+            goal = packedGoalBoard(n);
+            workers = new Worker[threads];
+            for (int i = 0; i < threads; i++) workers[i] = new Worker();
+        }
+
+        // Returns the search node of the goal board reached from the initial board on a shortest
+        // path
+        PackedNode solve(Board initial) {
+            int[] tiles = new int[n * n];
+            int[] positionOf = new int[n * n];
+            copyTiles(initial, tiles, positionOf);
+            long packed = pack(tiles);
+            long state = heuristic.state(tiles, positionOf);
+            PackedNode root = new PackedNode(packed, positionOf[0], 0, heuristic.estimate(state),
+                                             state, null);
+            owner(packed).receive(root);    // the workers have not been started yet
+
+            work.set(workers.length);
+            Thread[] threads = new Thread[workers.length];
+            for (int i = 0; i < workers.length; i++) {
+                threads[i] = new Thread(workers[i], "Solver-" + i);
+                workers[i].thread = threads[i];     // before any worker can send to it
+            }
+            for (Thread thread : threads) thread.start();
+            boolean interrupted = false;
+            for (Thread thread : threads) {
+                while (true) {
+                    try {
+                        thread.join();
+                        break;
+                    }
+                    catch (InterruptedException e) {
+                        interrupted = true;
+                        cancel();
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while solving the board.");
+            }
+            Throwable e = failure.get();
+            if (e instanceof RuntimeException) throw (RuntimeException) e;
+            if (e instanceof Error) throw (Error) e;
+            return incumbent.get();
+        }
+
+        // Returns the worker that owns the packed board
+        private Worker owner(long packed) {
+            long hash = packed * 0x9E3779B97F4A7C15L;   // Fibonacci hashing
+            return workers[(int) ((hash >>> 33) % workers.length)];
+        }
+
+        // Returns the number of moves of the best solution found so far; Integer.MAX_VALUE if none
+        private int bound() {
+            PackedNode node = incumbent.get();
+            return node == null ? Integer.MAX_VALUE : node.moves;
+        }
+
+        // Stops all workers, waking up the idle ones
+        private void cancel() {
+            cancelled = true;
+            wakeAll();
+        }
+
+        // Wakes up all idle workers (to let them see that the search has ended)
+        private void wakeAll() {
+            for (Worker worker : workers) LockSupport.unpark(worker.thread);
+        }
+
+        // Makes the search node of the goal board the incumbent if it has fewer moves
+        private void offerGoal(PackedNode node) {
+            while (true) {
+                PackedNode current = incumbent.get();
+                if (current != null && current.moves <= node.moves) return;
+                if (incumbent.compareAndSet(current, node)) return;
+            }
+        }
+
+        // A worker with its own open set (priority queue) and closed set (transposition table),
+        // which only ever contain boards it owns. Other workers send it search nodes through its
+        // lock-free inbox.
+        private final class Worker implements Runnable {
+            private final MinPQ<PackedNode> open = new MinPQ<>();
+            private final LongIntHashMap bestMoves = new LongIntHashMap(INITIAL_TABLE_SIZE);
+            private final ConcurrentLinkedQueue<PackedNode> inbox = new ConcurrentLinkedQueue<>();
+            private final int[] tiles = new int[n * n];         // the unpacked expanded board
+            private final int[] positionOf = new int[n * n];
+            private Thread thread;                  // the thread running this worker
+            private volatile boolean parked;        // is the worker waiting for search nodes?
+
+            @Override
+            public void run() {
+                try {
+                    search();
+                }
+                catch (RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                    cancel();
+                }
+            }
+
+            // Expands search nodes until no worker has a node below the bound left, and no
+            // search node is in transit
+            private void search() {
+                while (!cancelled) {
+                    for (PackedNode node = inbox.poll(); node != null; node = inbox.poll()) {
+                        receive(node);
+                        work.decrementAndGet();
+                    }
+                    if (!open.isEmpty()) {
+                        PackedNode node = open.delMin();
+                        if (node.moves + node.estimate < bound()) expand(node);
+                        continue;
+                    }
+
+                    // Idle: park until another worker sends a search node. Only a search node in
+                    // transit can make a worker active again, so once `work` is 0, it stays 0,
+                    // and the worker that brought it to 0 wakes up all others to let them end.
+                    if (work.decrementAndGet() == 0) {
+                        wakeAll();
+                        return;
+                    }
+                    parked = true;      // a sender that offers a node after this unparks us
+                    while (inbox.isEmpty()) {
+                        if (work.get() == 0 || cancelled) return;
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                    work.incrementAndGet();
+                }
+            }
+
+            // Inserts a search node of a board owned by this worker, unless its board has
+            // already been reached with as few moves or it cannot lead to a better solution
+            void receive(PackedNode node) {
+                if (node.tiles == goal) {
+                    offerGoal(node);
+                    return;
+                }
+                if (node.moves + node.estimate >= bound()) return;
+                if (bestMoves.get(node.tiles, Integer.MAX_VALUE) <= node.moves) return;
+                bestMoves.put(node.tiles, node.moves);
+                open.insert(node);
+            }
+
+            // Sends the neighbors of the search node to the workers that own them
+            private void expand(PackedNode node) {
+                if (node.moves > bestMoves.get(node.tiles, Integer.MAX_VALUE)) return; // outdated
+
+                unpack(node.tiles, tiles, positionOf);
+                int row = node.blank / n;
+                int col = node.blank % n;
+                if (row > 0) send(node, node.blank - n);
+                if (row < n - 1) send(node, node.blank + n);
+                if (col > 0) send(node, node.blank - 1);
+                if (col < n - 1) send(node, node.blank + 1);
+            }
+
+            // Sends the neighbor of `node` obtained by sliding the tile at `position` into the
+            // blank square to its owner, unless it is the board of the previous search node
+            private void send(PackedNode node, int position) {
+                int tile = tiles[position];
+                long packed = node.tiles & ~(0xFL << (4 * position))
+                        | ((long) tile << (4 * node.blank));
+                if (node.previous != null && packed == node.previous.tiles) return;
+
+                slide(tiles, positionOf, position, node.blank);
+                long state = heuristic.move(node.state, tiles, positionOf, position, node.blank);
+                slide(tiles, positionOf, node.blank, position);
+                int estimate = heuristic.estimate(state);
+                if (node.moves + 1 + estimate >= bound()) return;
+
+                PackedNode neighbor = new PackedNode(packed, position, node.moves + 1, estimate,
+                                                     state, node);
+                Worker owner = owner(packed);
+                if (owner == this) {
+                    receive(neighbor);
+                }
+                else {
+                    work.incrementAndGet();     // before the owner can receive it
+                    owner.inbox.offer(neighbor);
+                    if (owner.parked) LockSupport.unpark(owner.thread);
+                }
+            }
+        }
+    }
+
+    /* *************************************************************************
+     *  A* search on Board objects (n > 4)
+     **************************************************************************/
+
+    // Search node with a Board object
+    private static final class BoardNode implements Comparable<BoardNode> {
+        private final Board board;
+        private final int moves;
+        private final int estimate;     // estimate of the heuristic
+        private final long state;       // state of the heuristic
+        private final BoardNode previous;
+
+        BoardNode(Board board, int moves, int estimate, long state, BoardNode previous) {
+            this.board = board;
+            this.moves = moves;
+            this.estimate = estimate;
+            this.state = state;
+            this.previous = previous;
+        }
+
+        // Orders by priority, breaking ties in favor of the node closer to the goal
+        @Override
+        public int compareTo(BoardNode that) {
+            int cmp = Integer.compare(this.moves + this.estimate, that.moves + that.estimate);
+            if (cmp != 0) return cmp;
+            return Integer.compare(this.estimate, that.estimate);
+        }
+    }
+
+    // Returns the search node of the goal board reached from the initial board on a shortest path
+    private static BoardNode solveBoards(Board initial, Heuristic heuristic) {
+        final int size = initial.dimension() * initial.dimension();
+        int[] tiles = new int[size];        // the board of the expanded search node
+        int[] positionOf = new int[size];
+
+        MinPQ<BoardNode> pq = new MinPQ<>();
+        copyTiles(initial, tiles, positionOf);
+        long state = heuristic.state(tiles, positionOf);
+        pq.insert(new BoardNode(initial, 0, heuristic.estimate(state), state, null));
+        while (true) {
+            BoardNode node = pq.delMin();
+            if (node.board.isGoal()) return node;
+
+            // The heuristic of a neighbor is obtained from the one of the node by making the move
+            // on the copy of the board of the node, and undoing it
+            copyTiles(node.board, tiles, positionOf);
+            int blank = node.board.blankPosition();
+            for (Board neighbor : node.board.neighbors()) {
+                if (node.previous != null && neighbor.equals(node.previous.board)) continue;
+                int position = neighbor.blankPosition();    // of the tile that slides
+                slide(tiles, positionOf, position, blank);
+                state = heuristic.move(node.state, tiles, positionOf, position, blank);
+                slide(tiles, positionOf, blank, position);
+                pq.insert(new BoardNode(neighbor, node.moves + 1, heuristic.estimate(state), state,
+                                        node));
+            }
+        }
+    }
+
+    /* *************************************************************************
+     *  IDA* search on a single mutable board
+     **************************************************************************/
+
+    private static final class IdaSearch {
+        private final int n;
+        private final int[] tiles;          // tiles in row-major order
+        private final int[] positionOf;     // position of every tile (and of the blank square)
+        private final Heuristic heuristic;
+        private int[] path;                 // path[k] is the position of the blank after k moves
+        private int nextBound;              // smallest priority that exceeded the current bound
+
+        IdaSearch(Board initial, Heuristic heuristic) {
+            n = initial.dimension();
+            tiles = new int[n * n];
+            positionOf = new int[n * n];
+            copyTiles(initial, tiles, positionOf);
+            this.heuristic = heuristic;
+            path = new int[64];
+        }
+
+        // Returns the positions of the blank square along a shortest solution
+        int[] solve() {
+            long state = heuristic.state(tiles, positionOf);
+            path[0] = positionOf[0];
+            int bound = heuristic.estimate(state);
+            while (true) {
+                nextBound = Integer.MAX_VALUE;
+                int moves = search(0, state, bound);
+                if (moves >= 0) return Arrays.copyOf(path, moves + 1);
+                bound = nextBound;
+            }
+        }
+
+        // Searches depth-first from the current board, reached with `moves` moves, for the goal
+        // board within the bound; `state` is the state of the heuristic of the board. Returns the
+        // number of moves of the solution; -1 if none.
+        private int search(int moves, long state, int bound) {
+            int estimate = heuristic.estimate(state);
+            int priority = moves + estimate;
+            if (priority > bound) {
+                nextBound = Math.min(nextBound, priority);
+                return -1;
+            }
+            if (estimate == 0 && isGoal()) return moves;
+
+            int blank = positionOf[0];
+            int previous = moves > 0 ? path[moves - 1] : -1;   // never move straight back
+            for (int direction = 0; direction < 4; direction++) {
+                int position = neighbor(blank, direction);
+                if (position < 0 || position == previous) continue;
+                int found = move(position, moves, state, bound);
+                if (found >= 0) return found;
+            }
+            return -1;
+        }
+
+        // Is the current board the goal board?
+        private boolean isGoal() {
+            for (int position = 0; position < tiles.length - 1; position++) {
+                if (tiles[position] != position + 1) return false;
+            }
+            return true;
+        }
+
+        // Returns the position above, below, left, or right (direction 0 to 3) of `position`;
+        // -1 if it is outside of the board
+        private int neighbor(int position, int direction) {
+            int row = position / n;
+            int col = position % n;
+            switch (direction) {
+                case 0:  return row > 0 ? position - n : -1;
+                case 1:  return row < n - 1 ? position + n : -1;
+                case 2:  return col > 0 ? position - 1 : -1;
+                default: return col < n - 1 ? position + 1 : -1;
+            }
+        }
+
+        // Slides the tile at `position` into the blank square, searches on, and undoes the move
+        private int move(int position, int moves, long state, int bound) {
+            int blank = positionOf[0];
+            slide(tiles, positionOf, position, blank);
+            if (moves + 1 == path.length) path = Arrays.copyOf(path, 2 * path.length);
+            path[moves + 1] = position;
+
+            int found = search(moves + 1, heuristic.move(state, tiles, positionOf, position, blank),
+                               bound);
+
+            slide(tiles, positionOf, blank, position);
+            return found;
+        }
+    }
+
+    /**
+     * Test client provided by Princeton University: solves the slider puzzle in the input file.
+     *
+     * % java-algs4 Solver puzzle04.txt
+     * Minimum number of moves = 4
+     * 3
+     * 0 1 3
+     * 4 2 5
+     * 7 8 6
+     * ...
+     */
     public static void main(String[] args) {
-        // Todo: ...
 
         // create initial board from file
-        In in = new In("8puzzle/puzzle3x3-unsolvable1.txt");
+        In in = new In(args[0]);
         int n = in.readInt();
         int[][] tiles = new int[n][n];
-
         for (int i = 0; i < n; i++)
             for (int j = 0; j < n; j++)
                 tiles[i][j] = in.readInt();
+        Board initial = new Board(tiles);
 
-        Board board = new Board(tiles);
-
-        // Test some basic calls
-        int manhattan = board.manhattan();
+        // solve the puzzle (an optional second argument selects the mode, e.g., IDA_STAR, and an
+        // optional third one the heuristic: LINEAR_CONFLICT, WALKING_DISTANCE, or a directory with
+        // the pattern database tables of the dimension of the board)
+        Mode mode = args.length > 1 ? Mode.valueOf(args[1]) : Mode.A_STAR;
+        Heuristic heuristic = args.length > 2 ? heuristic(args[2], n) : new ManhattanDistance(n);
+        Solver solver = new Solver(initial, mode, heuristic);
 
-        // Test priority queue implementation of Princeton
-        MinPQ<Integer> pq = new MinPQ<>();
+        // print solution to standard output
+        if (!solver.isSolvable())
+            StdOut.println("No solution possible");
+        else {
+            StdOut.println("Minimum number of moves = " + solver.moves());
+            for (Board board : solver.solution())
+                StdOut.println(board);
+        }
     }
 
+    // Returns the heuristic of n-by-n boards with the given name (or pattern database directory)
+    private static Heuristic heuristic(String name, int n) {
+        switch (name) {
+            case "MANHATTAN":        return new ManhattanDistance(n);
+            case "LINEAR_CONFLICT":  return new LinearConflict(n);
+            case "WALKING_DISTANCE": return new WalkingDistance(n);
+            default:                 return PatternDatabase.open(Paths.get(name), n);
+        }
+    }
 }
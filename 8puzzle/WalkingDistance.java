@@ -0,0 +1,167 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Arrays;
+
+/**
+ * The walking distance as a Heuristic.
+ * <p>
+ * IDEA: Consider only the vertical moves. For every row r and goal row g, count the tiles in row
+ * r whose goal row is g. A vertical move takes a tile from a row adjacent to the blank square
+ * into the row of the blank square, and only changes this n-by-n table of counts. The fewest
+ * vertical moves to reach the table of the goal board is a lower bound on the vertical moves of
+ * any solution, and the same holds for the horizontal moves with the columns. The walking
+ * distance is the sum of both, and is at least the Manhattan distance: it also accounts for tiles
+ * that have to pass each other within a row or column.
+ * <p>
+ * Tables. The constructor enumerates all tables that are reachable from the goal table by a
+ * breadth-first search (24964 for the 4-by-4 board), and stores for every table its distance
+ * and the tables reached by the moves. The tables of the columns, with the goal columns of the
+ * tiles, are the same as the ones of the rows (the blank square belongs into the last column as
+ * well as into the last row). The state of a board is the pair of indices of its row table and
+ * column table, and move() is a single array lookup.
+ * <p>
+ * The number of tables grows quickly with n, so only boards up to 4-by-4 are supported.
+ *
+ * @author Florian Woerz
+ */
+public class WalkingDistance implements Heuristic {
+
+    private static final int BITS = 3;  // bits per count of a packed table
+
+    private final int n;
+    private final LongIntHashMap index; // the index of every packed table
+    private final byte[] distance;      // distance[i] is the fewest moves from table i to the goal
+    private final int[] next;           // next[i * 2n + d * n + g]: see nextTable()
+
+    /**
+     * Creates the walking distance of n-by-n boards.
+     *
+     * @param n the board dimension
+     * @throws IllegalArgumentException unless 2 <= n <= 4
+     */
+    public WalkingDistance(int n) {
+        if (n < 2 || n > 4) throw new IllegalArgumentException("n must be between 2 and 4.");
+        this.n = n;
+
+        // The goal table: all tiles in their goal rows, and the blank square in the last row
+        long goal = 0;
+        for (int r = 0; r < n; r++) goal += (long) (r < n - 1 ? n : n - 1) << shift(r, r);
+
+        // Breadth-first search; the tables are numbered in the order they are discovered, so the
+        // array of packed tables doubles as the queue
+        long[] tables = new long[64];
+        byte[] dist = new byte[64];
+        int[] moves = new int[64 * 2 * n];
+        index = new LongIntHashMap(64);
+        tables[0] = goal;
+        index.put(goal, 0);
+        int size = 1;
+        for (int i = 0; i < size; i++) {
+            long table = tables[i];
+            int blankRow = blankRow(table);
+            for (int d = 0; d < 2; d++) {
+                int r = d == 0 ? blankRow - 1 : blankRow + 1;
+                for (int g = 0; g < n; g++) {
+                    int k = i * 2 * n + d * n + g;
+                    if (r < 0 || r >= n || count(table, r, g) == 0) {
+                        moves[k] = -1;
+                        continue;
+                    }
+                    long neighbor = table - (1L << shift(r, g)) + (1L << shift(blankRow, g));
+                    int j = index.get(neighbor, -1);
+                    if (j < 0) {
+                        if (size == tables.length) {
+                            tables = Arrays.copyOf(tables, 2 * size);
+                            dist = Arrays.copyOf(dist, 2 * size);
+                            moves = Arrays.copyOf(moves, 2 * size * 2 * n);
+                        }
+                        j = size++;
+                        tables[j] = neighbor;
+                        dist[j] = (byte) (dist[i] + 1);
+                        index.put(neighbor, j);
+                    }
+                    moves[k] = j;
+                }
+            }
+        }
+        distance = Arrays.copyOf(dist, size);
+        next = Arrays.copyOf(moves, size * 2 * n);
+    }
+
+    // Returns the position of the count of row r and goal row g in a packed table
+    private int shift(int r, int g) {
+        return BITS * (r * n + g);
+    }
+
+    // Returns the number of tiles in row r whose goal row is g
+    private int count(long table, int r, int g) {
+        return (int) (table >>> shift(r, g)) & ((1 << BITS) - 1);
+    }
+
+    // Returns the row of the blank square, i.e., the row with n - 1 tiles
+    private int blankRow(long table) {
+        for (int r = 0; r < n; r++) {
+            int tiles = 0;
+            for (int g = 0; g < n; g++) tiles += count(table, r, g);
+            if (tiles == n - 1) return r;
+        }
+        throw new IllegalStateException("The table has no blank square.");
+    }
+
+    // Returns the index of the table after a tile whose goal row is g moved into the row of the
+    // blank square, from the row above (direction 0) or below (direction 1) it
+    private int nextTable(int table, int direction, int g) {
+        return next[table * 2 * n + direction * n + g];
+    }
+
+    @Override
+    public int dimension() {
+        return n;
+    }
+
+    @Override
+    public long state(int[] tiles, int[] positionOf) {
+        long rows = 0;
+        long columns = 0;
+        for (int p = 0; p < tiles.length; p++) {
+            if (tiles[p] == 0) continue;
+            rows += 1L << shift(p / n, (tiles[p] - 1) / n);
+            columns += 1L << shift(p % n, (tiles[p] - 1) % n);
+        }
+        return (long) index.get(rows, -1) << 32 | index.get(columns, -1);
+    }
+
+    @Override
+    public long move(long state, int[] tiles, int[] positionOf, int from, int to) {
+        int tile = tiles[to];
+        int rows = (int) (state >>> 32);
+        int columns = (int) state;
+        if (from % n == to % n)
+            rows = nextTable(rows, from < to ? 0 : 1, (tile - 1) / n);
+        else
+            columns = nextTable(columns, from < to ? 0 : 1, (tile - 1) % n);
+        return (long) rows << 32 | columns;
+    }
+
+    @Override
+    public int estimate(long state) {
+        return distance[(int) (state >>> 32)] + distance[(int) state];
+    }
+
+    // Some simple unit tests
+    public static void main(String[] args) {
+        WalkingDistance walking = new WalkingDistance(4);
+        StdOut.println(walking.distance.length);                        // ==> 24964
+
+        int[] tiles = { 4, 3, 2, 1, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 0 };
+        int[] positionOf = new int[16];
+        for (int p = 0; p < 16; p++) positionOf[tiles[p]] = p;
+        StdOut.println(walking.estimate(walking.state(tiles, positionOf)));
+        // ==> 14 (the Manhattan distance is 8)
+    }
+}
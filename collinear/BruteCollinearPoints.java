@@ -8,59 +8,55 @@ import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.StdDraw;
 import edu.princeton.cs.algs4.StdOut;
 
-import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
 /**
  * Examines 4 points at a time and checks whether they all lie on the same line segment, returning
- * all such line segments. To check whether the 4 points p, q, r, and s are collinear, it checks
- * whether the three slopes between p and q, between p and r, and between p and s are all equal.
+ * all maximal such line segments. To check whether the 4 points p, q, r, and s are collinear, it
+ * checks whether the three slopes between p and q, between p and r, and between p and s are all
+ * equal. The slopes are compared exactly using Point.slopeKey() instead of floating-point division,
+ * on the coordinate arrays of a PointStore.
+ * <p>
+ * A line with k >= 5 points contains many collinear 4-subsets. To report its maximal segment only
+ * once, every segment is identified by the canonical key (lowest point p, slope): for each p, a
+ * LongIntHashMap maps every slope to the highest point s found so far. Slopes from p to a lower
+ * point are blocked, since p is not the lowest point of the line along such a slope. Hence, the
+ * output size is proportional to the number of distinct lines rather than the number of 4-subsets.
  *
  * @author Florian Woerz
  */
 public class BruteCollinearPoints {
 
+    private static final int NONE = -1;     // no segment along this slope (yet)
+    private static final int BLOCKED = -2;  // slope leads to a point lower than p
+
     private final LineSegment[] lineSegments;
 
     /**
-     * Finds all line segments containing 4 points
+     * Finds all maximal line segments containing 4 or more points
      * @param points
      */
     public BruteCollinearPoints(Point[] points) {
         // Corner cases. Throw an IllegalArgumentException if the argument to the constructor is
         // null, if any point in the array is null, or if the argument to the constructor contains
-        // a repeated point.
-
-        // Check for null argument
-        if (points == null) throw new IllegalArgumentException("The array `points` is null.");
-
-        // Check for null-points in the array
-        for (Point p : points) {
-            if (p == null) throw new IllegalArgumentException("The array contains a null element.");
-        }
+        // a repeated point. PointStore checks these cases while it copies the points into its
+        // coordinate arrays.
 
         // Check for duplicate-points (this should be done while avoiding a hash set since they have
         // not been covered in class up to this point). This could have also been done with two
         // for loops amounting to O(n^2) time, where n := points.length. Hence, sorting the array
         // first with a worst-case cost of O(n*log(n)) is cheaper. Then we can iterate once over
-        // the array for a cost of O(n).
-
-        final int N = points.length;
+        // the array for a cost of O(n). PointStore sorts the points anyway (into natural order),
+        // and compares neighbors by their packed coordinates, since Point does not override
+        // equals().
 
         // Test 11: check that data type does not mutate the constructor argument
         // data type mutated the points[] array
         // data type should have no side effects unless documented in API
-
-        Point[] sortedPoints = points.clone();
-        Arrays.sort(sortedPoints);
-
-        for (int i = 1; i < N; i++) {
-            if (sortedPoints[i].equals(sortedPoints[i-1])) {
-                // got a duplicate element
-                throw new IllegalArgumentException("The array contains a duplicate entry.");
-            }
-        }
+        // Hence, PointStore sorts a copy of the points, never the argument itself.
+        PointStore store = new PointStore(points);
+        final int N = store.size();
 
         // We don't waste time micro-optimizing the brute-force solution. Though, there are two
         // easy opportunities. First, we can iterate through all combinations of 4 points
@@ -69,30 +65,39 @@ public class BruteCollinearPoints {
         // the first 3 are not collinear; this can save a factor of N on typical inputs.
 
         List<LineSegment> list = new LinkedList<>();
+        LongIntHashMap highest = new LongIntHashMap(N); // slope from p -> highest s, or BLOCKED
 
-        // p,q,r,s
+        // p,q,r,s are indices into the store
         for (int p = 0; p < N-3; p++) {
-            Point pointP = sortedPoints[p];
+            highest.clear();
+            for (int t = 0; t < p; t++) {
+                highest.put(store.slopeKey(p, t), BLOCKED);
+            }
 
             for (int q = p + 1; q < N-2; q++) {
-                Point pointQ = sortedPoints[q];
-                double slopePQ = pointP.slopeTo(pointQ);
+                long slopePQ = store.slopeKey(p, q);
+                if (highest.get(slopePQ, NONE) == BLOCKED) continue;
 
                 for (int r = q + 1; r < N - 1; r++) {
-                    Point pointR = sortedPoints[r];
-                    double slopePR = pointP.slopeTo(pointR);
+                    long slopePR = store.slopeKey(p, r);
                     if (slopePQ == slopePR) {
 
                         for (int s = r + 1; s < N; s++) {
-                            Point pointS = sortedPoints[s];
-                            double slopePS = pointP.slopeTo(pointS);
-                            if (slopePQ == slopePS) {
-                                list.add(new LineSegment(pointP, pointS));
+                            long slopePS = store.slopeKey(p, s);
+                            if (slopePQ == slopePS && s > highest.get(slopePQ, NONE)) {
+                                highest.put(slopePQ, s);
                             }
                         }
                     }
                 }
             }
+
+            // Report the canonical segment (p, highest s) for every slope exactly once
+            for (int s = p + 3; s < N; s++) {
+                if (highest.get(store.slopeKey(p, s), NONE) == s) {
+                    list.add(store.segment(p, s));
+                }
+            }
         }
 
         lineSegments = list.toArray(new LineSegment[list.size()]);
@@ -109,10 +114,10 @@ public class BruteCollinearPoints {
     }
 
     /**
-     * Includes each line segment containing 4 points exactly once. If 4 points appear on a line
-     * segment in the order p→q→r→s, the method includes either the line segment p→s or s→p (but
-     * not both) and does not include subsegments such as p→r or q→r. For simplicity, do not
-     * supply any input to BruteCollinearPoints that has 5 or more collinear points.
+     * Includes each maximal line segment containing 4 (or more) points exactly once. If 4
+     * points appear on a line segment in the order p→q→r→s, the method includes either the
+     * line segment p→s or s→p (but not both) and does not include subsegments such as p→r
+     * or q→r. The same holds for 5 or more collinear points.
      */
     public LineSegment[] segments() {
         return lineSegments.clone();
@@ -0,0 +1,306 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdDraw;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds all maximal line segments containing 4 or more points, using sorting. This is much faster
+ * than the brute-force approach of BruteCollinearPoints. The minimum number of points k of a
+ * segment can be configured, too. If only the segments themselves (or just their number) are
+ * needed, forEachSegment() and count() report them without allocating any LineSegment objects.
+ * <p>
+ * IDEA: Think of a point p as the origin. For each other point q, determine the slope it makes
+ * with p. Sort the points according to the slopes they make with p. Check if any 3 (or more)
+ * adjacent points in the sorted order have equal slopes with respect to p. If so, these points,
+ * together with p, are collinear.
+ * <p>
+ * To report every maximal segment exactly once, we work on the indices of a PointStore, which are
+ * in the natural order of the points, and sort them such that the points within a run of equal
+ * slopes remain in natural order. A run of k - 1 or more points forms a segment with p. We only
+ * report a run if p is smaller than the first point of the run, i.e., if p is the lowest point of
+ * the segment; the highest point is the last point of the run.
+ * <p>
+ * All slopes are compared exactly with integer arithmetic, directly on the coordinate arrays of
+ * the PointStore. For coordinates between 0 and 32767 (as in the assignment), the slope from p to
+ * every other point q is computed only once per anchor, as a 32-bit key (see
+ * PointStore.compactSlopeKey()). The key is packed together with the index of q into a long, and
+ * these longs are sorted with the primitive Arrays.sort(long[]). Equal slopes then form runs, and
+ * within a run the indices (i.e., the points) are in natural order. No comparator is allocated
+ * and no slope is recomputed during the sort. For other coordinates, the indices are sorted with
+ * a stable mergesort that compares the slopes in the order of Point.slopeOrder().
+ * <p>
+ * Performance. The order of growth of the running time is n^2 log n in the worst case, with only
+ * n slope computations per anchor, and it uses space proportional to n plus the number of line
+ * segments returned.
+ *
+ * @author Florian Woerz
+ */
+public class FastCollinearPoints {
+
+    // cutoff to insertion sort for small subarrays
+    private static final int CUTOFF = 7;
+
+    // default minimum number of points of a segment
+    static final int DEFAULT_MIN_POINTS = 4;
+
+    private final LineSegment[] lineSegments;
+
+    /**
+     * Receives the maximal line segments found by forEachSegment(), as the coordinates of their
+     * endpoints (the lower endpoint first) and the number of points on the segment.
+     */
+    @FunctionalInterface
+    public interface SegmentConsumer {
+        void accept(int x0, int y0, int x1, int y1, int count);
+    }
+
+    /**
+     * Finds all maximal line segments containing 4 or more points
+     * @param points
+     */
+    public FastCollinearPoints(Point[] points) {
+        this(points, DEFAULT_MIN_POINTS);
+    }
+
+    /**
+     * Finds all maximal line segments containing `minPoints` or more points
+     * @param points
+     * @param minPoints the minimum number of points of a segment
+     * @throws IllegalArgumentException if minPoints is less than 2
+     */
+    public FastCollinearPoints(Point[] points, int minPoints) {
+        List<LineSegment> list = new ArrayList<>();
+        forEachSegment(points, minPoints,
+                (x0, y0, x1, y1, count) -> list.add(new LineSegment(new Point(x0, y0),
+                                                                    new Point(x1, y1))));
+        lineSegments = list.toArray(new LineSegment[list.size()]);
+    }
+
+    /**
+     * Reports every maximal line segment containing `minPoints` or more points exactly once to
+     * `consumer`, in the same order as segments() would return them.
+     *
+     * @param points    the points (the argument is not mutated)
+     * @param minPoints the minimum number of points of a segment
+     * @param consumer  receives the segments
+     * @throws IllegalArgumentException if points or consumer is null, if any point in the array is
+     *                                  null, if the array contains a repeated point, or if
+     *                                  minPoints is less than 2
+     */
+    public static void forEachSegment(Point[] points, int minPoints, SegmentConsumer consumer) {
+        checkMinPoints(minPoints);
+        if (consumer == null) throw new IllegalArgumentException("consumer cannot be null.");
+        PointStore store = new PointStore(points);
+        final int N = store.size();
+
+        Scratch scratch = new Scratch(N); // reused for every anchor point p
+        for (int p = 0; p < N; p++) {
+            findSegments(store, p, minPoints, scratch, consumer);
+        }
+    }
+
+    /**
+     * Returns the number of maximal line segments containing `minPoints` or more points, without
+     * creating the segments.
+     *
+     * @param points    the points (the argument is not mutated)
+     * @param minPoints the minimum number of points of a segment
+     * @return the number of segments
+     * @throws IllegalArgumentException if points is null, if any point in the array is null, if the
+     *                                  array contains a repeated point, or if minPoints is less
+     *                                  than 2
+     */
+    public static long count(Point[] points, int minPoints) {
+        long[] count = new long[1];
+        forEachSegment(points, minPoints, (x0, y0, x1, y1, c) -> count[0]++);
+        return count[0];
+    }
+
+    static void checkMinPoints(int minPoints) {
+        if (minPoints < 2) throw new IllegalArgumentException("minPoints must be at least 2.");
+    }
+
+    /**
+     * Scratch arrays for findSegments(), to be allocated once and reused for all anchors.
+     */
+    static final class Scratch {
+        private final long[] keys;      // (compact slope key << 32) | index
+        private final int[] bySlope;    // indices, sorted by slope
+        private final int[] aux;        // auxiliary array for the mergesort
+
+        Scratch(int n) {
+            keys = new long[n];
+            bySlope = new int[n];
+            aux = new int[n];
+        }
+    }
+
+    /**
+     * Reports all maximal segments with `minPoints` or more points whose lowest point is `p` to
+     * `consumer`.
+     *
+     * @param store     the points
+     * @param p         the index of the anchor point
+     * @param minPoints the minimum number of points of a segment (at least 2)
+     * @param scratch   scratch arrays for a store of this size
+     * @param consumer  receives the segments
+     */
+    static void findSegments(PointStore store, int p, int minPoints, Scratch scratch,
+                             SegmentConsumer consumer) {
+        if (store.isCompact()) findSegmentsByKey(store, p, minPoints, scratch.keys, consumer);
+        else findSegmentsByMergesort(store, p, minPoints, scratch.bySlope, scratch.aux, consumer);
+    }
+
+    // Reports the segment from point p to point q with `count` points to the consumer
+    private static void report(PointStore store, int p, int q, int count,
+                               SegmentConsumer consumer) {
+        consumer.accept(store.x(p), store.y(p), store.x(q), store.y(q), count);
+    }
+
+    // Implements findSegments() with precomputed slope keys and a primitive sort
+    private static void findSegmentsByKey(PointStore store, int p, int minPoints, long[] keys,
+                                          SegmentConsumer consumer) {
+        final int N = store.size();
+
+        // Compute the slope key to every other point once, and pack it with the index
+        int m = 0;
+        for (int q = 0; q < N; q++) {
+            if (q != p) keys[m++] = ((long) store.compactSlopeKey(p, q) << 32) | q;
+        }
+        Arrays.sort(keys, 0, m);
+
+        // Find the runs [lo, hi) of equal slope keys (the upper 32 bits)
+        int lo = 0;
+        while (lo < m) {
+            long slope = keys[lo] >>> 32;
+            int hi = lo + 1;
+            while (hi < m && (keys[hi] >>> 32) == slope) hi++;
+
+            // indices are ranks, so p is the lowest point if it is less than the first index
+            if (hi - lo >= minPoints - 1 && p < (int) keys[lo]) {
+                report(store, p, (int) keys[hi - 1], hi - lo + 1, consumer);
+            }
+            lo = hi;
+        }
+    }
+
+    // Implements findSegments() with a stable mergesort on the exact slope comparison
+    private static void findSegmentsByMergesort(PointStore store, int p, int minPoints,
+                                                int[] bySlope, int[] aux,
+                                                SegmentConsumer consumer) {
+        final int N = store.size();
+
+        // Sort the (naturally ordered) indices by the slope the points make with p. The point p
+        // itself has slope -infinity and ends up at position 0.
+        for (int i = 0; i < N; i++) bySlope[i] = i;
+        sortBySlope(store, p, bySlope, aux, 0, N - 1);
+
+        // Find the runs [lo, hi) of points with equal (exact) slopes with respect to p
+        int lo = 1;
+        while (lo < N) {
+            long slope = store.slopeKey(p, bySlope[lo]);
+            int hi = lo + 1;
+            while (hi < N && store.slopeKey(p, bySlope[hi]) == slope) hi++;
+
+            // indices are ranks, so p is the lowest point if it is less than bySlope[lo]
+            if (hi - lo >= minPoints - 1 && p < bySlope[lo]) {
+                report(store, p, bySlope[hi - 1], hi - lo + 1, consumer);
+            }
+            lo = hi;
+        }
+    }
+
+    // Stably sorts a[lo..hi] by the slope the points make with point p (top-down mergesort)
+    private static void sortBySlope(PointStore store, int p, int[] a, int[] aux, int lo, int hi) {
+        if (hi <= lo + CUTOFF) {
+            for (int i = lo + 1; i <= hi; i++) {
+                for (int j = i; j > lo && store.compareSlopes(p, a[j], a[j - 1]) < 0; j--) {
+                    int tmp = a[j];
+                    a[j] = a[j - 1];
+                    a[j - 1] = tmp;
+                }
+            }
+            return;
+        }
+        int mid = lo + (hi - lo) / 2;
+        sortBySlope(store, p, a, aux, lo, mid);
+        sortBySlope(store, p, a, aux, mid + 1, hi);
+        if (store.compareSlopes(p, a[mid + 1], a[mid]) >= 0) return; // already in order
+
+        System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+        int i = lo;
+        int j = mid + 1;
+        for (int k = lo; k <= hi; k++) {
+            if (i > mid) a[k] = aux[j++];
+            else if (j > hi) a[k] = aux[i++];
+            else if (store.compareSlopes(p, aux[j], aux[i]) < 0) a[k] = aux[j++];
+            else a[k] = aux[i++];
+        }
+    }
+
+    /**
+     * The number of line segments.
+     * @return
+     */
+    public int numberOfSegments() {
+        return lineSegments.length;
+    }
+
+    /**
+     * Includes each maximal line segment containing 4 (or more) points exactly once. If 4 points
+     * appear on a line segment in the order p→q→r→s, the method includes either the line segment
+     * p→s or s→p (but not both) and does not include subsegments such as p→r or q→r.
+     */
+    public LineSegment[] segments() {
+        return lineSegments.clone();
+    }
+
+    /**
+     * Simple test client provided by Princeton University. See BruteCollinearPoints for the input
+     * format.
+     *
+     * % java-algs4 FastCollinearPoints input8.txt
+     * (3000, 4000) -> (20000, 21000)
+     * (0, 10000) -> (10000, 0)
+     *
+     * An optional second argument sets the minimum number of points of a segment (default: 4).
+     */
+    public static void main(String[] args) {
+
+        // read the n points from a file
+        In in = new In(args[0]);
+        int minPoints = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MIN_POINTS;
+        int n = in.readInt();
+        Point[] points = new Point[n];
+        for (int i = 0; i < n; i++) {
+            int x = in.readInt();
+            int y = in.readInt();
+            points[i] = new Point(x, y);
+        }
+
+        // draw the points
+        StdDraw.enableDoubleBuffering();
+        StdDraw.setXscale(0, 32768);
+        StdDraw.setYscale(0, 32768);
+        for (Point p : points) {
+            p.draw();
+        }
+        StdDraw.show();
+
+        // print and draw the line segments
+        FastCollinearPoints collinear = new FastCollinearPoints(points, minPoints);
+        for (LineSegment segment : collinear.segments()) {
+            StdOut.println(segment);
+            segment.draw();
+        }
+        StdDraw.show();
+    }
+}
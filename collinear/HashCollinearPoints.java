@@ -0,0 +1,171 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds all maximal line segments containing 4 or more points, using hashing instead of sorting.
+ * It returns the same segments as BruteCollinearPoints and FastCollinearPoints (possibly in a
+ * different order). As in FastCollinearPoints, the minimum number of points k of a segment can be
+ * configured, and forEachSegment() and count() report the segments without creating them.
+ * <p>
+ * IDEA: As in FastCollinearPoints, think of each point p as the origin, but instead of sorting
+ * the other points by slope, group them by their exact slope key (see Point.slopeKey()) in a
+ * LongIntHashMap that maps a slope key to the number of points with that slope. With the points in
+ * natural order p_0 < p_1 < ... < p_(n-1) (as the indices of a PointStore) and anchor p = p_i:
+ * -- every point p_j with j < i blocks its slope (value -1), since p is then not the lowest point
+ * of the segment along this slope and the segment is reported by a smaller anchor;
+ * -- every point p_j with j > i increments the count of its slope (unless blocked);
+ * -- finally, we scan the points p_j from j = n - 1 down to i + 1. The first point we meet with a
+ * count of k - 1 or more on its slope is the highest point of a maximal segment starting at p. We
+ * report the segment and block the slope, so it is reported only once.
+ * <p>
+ * Performance. The expected running time is proportional to n^2, with no sorting and no boxing.
+ * It uses space proportional to n plus the number of line segments returned.
+ *
+ * @author Florian Woerz
+ */
+public class HashCollinearPoints {
+
+    private static final int BLOCKED = -1;  // marks a slope with a point below the anchor
+
+    private final LineSegment[] lineSegments;
+
+    /**
+     * Finds all maximal line segments containing 4 or more points
+     * @param points
+     */
+    public HashCollinearPoints(Point[] points) {
+        this(points, FastCollinearPoints.DEFAULT_MIN_POINTS);
+    }
+
+    /**
+     * Finds all maximal line segments containing `minPoints` or more points
+     * @param points
+     * @param minPoints the minimum number of points of a segment
+     * @throws IllegalArgumentException if minPoints is less than 2
+     */
+    public HashCollinearPoints(Point[] points, int minPoints) {
+        List<LineSegment> list = new ArrayList<>();
+        forEachSegment(points, minPoints,
+                (x0, y0, x1, y1, count) -> list.add(new LineSegment(new Point(x0, y0),
+                                                                    new Point(x1, y1))));
+        lineSegments = list.toArray(new LineSegment[list.size()]);
+    }
+
+    /**
+     * Reports every maximal line segment containing `minPoints` or more points exactly once to
+     * `consumer`, in the same order as segments() would return them.
+     *
+     * @param points    the points (the argument is not mutated)
+     * @param minPoints the minimum number of points of a segment
+     * @param consumer  receives the segments
+     * @throws IllegalArgumentException if points or consumer is null, if any point in the array is
+     *                                  null, if the array contains a repeated point, or if
+     *                                  minPoints is less than 2
+     */
+    public static void forEachSegment(Point[] points, int minPoints,
+                                      FastCollinearPoints.SegmentConsumer consumer) {
+        FastCollinearPoints.checkMinPoints(minPoints);
+        if (consumer == null) throw new IllegalArgumentException("consumer cannot be null.");
+        PointStore store = new PointStore(points);
+        final int N = store.size();
+
+        LongIntHashMap counts = new LongIntHashMap(N);
+        long[] keys = new long[N];  // keys[j] is the slope key from the anchor to p_j
+
+        for (int i = 0; i < N; i++) {
+            counts.clear();
+
+            for (int j = 0; j < i; j++) {
+                counts.put(store.slopeKey(i, j), BLOCKED);
+            }
+            for (int j = i + 1; j < N; j++) {
+                keys[j] = store.slopeKey(i, j);
+                int count = counts.get(keys[j], 0);
+                if (count != BLOCKED) counts.put(keys[j], count + 1);
+            }
+            for (int j = N - 1; j > i; j--) {
+                int count = counts.get(keys[j], 0);
+                if (count >= minPoints - 1) {
+                    consumer.accept(store.x(i), store.y(i), store.x(j), store.y(j), count + 1);
+                    counts.put(keys[j], BLOCKED);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of maximal line segments containing `minPoints` or more points, without
+     * creating the segments.
+     *
+     * @param points    the points (the argument is not mutated)
+     * @param minPoints the minimum number of points of a segment
+     * @return the number of segments
+     * @throws IllegalArgumentException if points is null, if any point in the array is null, if the
+     *                                  array contains a repeated point, or if minPoints is less
+     *                                  than 2
+     */
+    public static long count(Point[] points, int minPoints) {
+        long[] count = new long[1];
+        forEachSegment(points, minPoints, (x0, y0, x1, y1, c) -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * The number of line segments.
+     * @return
+     */
+    public int numberOfSegments() {
+        return lineSegments.length;
+    }
+
+    /**
+     * Includes each maximal line segment containing 4 (or more) points exactly once.
+     */
+    public LineSegment[] segments() {
+        return lineSegments.clone();
+    }
+
+    /**
+     * Test client: prints the line segments found in the input file (see BruteCollinearPoints for
+     * the input format) and the time taken by HashCollinearPoints and FastCollinearPoints, and
+     * checks that count() agrees with both.
+     */
+    public static void main(String[] args) {
+
+        // read the n points from a file
+        In in = new In(args[0]);
+        int n = in.readInt();
+        Point[] points = new Point[n];
+        for (int i = 0; i < n; i++) {
+            int x = in.readInt();
+            int y = in.readInt();
+            points[i] = new Point(x, y);
+        }
+
+        long start = System.nanoTime();
+        HashCollinearPoints collinear = new HashCollinearPoints(points);
+        long hashTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        FastCollinearPoints fast = new FastCollinearPoints(points);
+        long fastTime = System.nanoTime() - start;
+
+        for (LineSegment segment : collinear.segments()) {
+            StdOut.println(segment);
+        }
+        StdOut.printf("hash: %d segments in %.3f s, fast: %d segments in %.3f s\n",
+                      collinear.numberOfSegments(), hashTime / 1e9,
+                      fast.numberOfSegments(), fastTime / 1e9);
+        StdOut.println(count(points, 4) == collinear.numberOfSegments()
+                               && FastCollinearPoints.count(points, 4) == fast.numberOfSegments());
+        // ==> true
+    }
+}
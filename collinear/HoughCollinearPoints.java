@@ -0,0 +1,336 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds the dominant line segments of a large set of points approximately, using a Hough
+ * transform. Unlike the other collinear classes, it does not find all maximal segments with 4 or
+ * more points, but only (up to) the `maxLines` segments with the most points, and it may miss some
+ * of them. Every segment it returns is exact, though: it is a maximal segment containing 4 or more
+ * points.
+ * <p>
+ * IDEA: Every line can be written as rho = x cos(theta) + y sin(theta), where theta in [0, pi) is
+ * the angle of its normal and rho its distance from the origin (here: the center of the bounding
+ * box of the points). We sample ANGLES angles theta_t and let every point vote, for every angle,
+ * for the bin of width w that contains its rho. The votes are counted in an accumulator, a flat
+ * int[] with one row of bins per angle. Points on a common line vote for (about) the same bin at
+ * the angle closest to its normal, so the bins with the most votes are candidates for lines. The
+ * bin width w is chosen such that the rho of the points on any line varies by at most w at the
+ * closest angle, i.e., a line lies within three adjacent bins around its peak.
+ * <p>
+ * Voting is distributed over a ForkJoinPool: the points are split into ranges, every leaf task
+ * counts the votes of its range in its own accumulator, and the accumulators are summed when the
+ * tasks are joined. Hence, the workers never write to shared memory.
+ * <p>
+ * Refinement: for each candidate bin (the local maxima with the most votes), we collect the points
+ * within the three adjacent bins and look for the exact line with the most points among them: for
+ * a few anchors a among these points, we count the other points by their exact slope key from a
+ * (see Point.slopeKey()) in a LongIntHashMap. If the best line through an anchor contains 4 or more
+ * points, one more pass over all points finds its lowest and highest point with exact cross
+ * products, so the segment is maximal even if the line reaches beyond the candidate bins. Nearby
+ * bins of the same line produce the same segment, which is reported only once.
+ * <p>
+ * Performance. Voting takes time proportional to n * ANGLES and refining takes time proportional
+ * to n * maxLines (plus n log n for building the PointStore), i.e., the running time is
+ * near-linear in n. Every leaf task uses space proportional to ANGLES^2 for its accumulator.
+ *
+ * @author Florian Woerz
+ */
+public class HoughCollinearPoints {
+
+    // number of sampled angles theta in [0, pi)
+    private static final int ANGLES = 256;
+
+    // number of candidate bins refined per requested line (nearby bins often find the same line)
+    private static final int CANDIDATES_PER_LINE = 4;
+
+    // number of anchors tried per candidate bin
+    private static final int ANCHORS = 16;
+
+    // number of leaf tasks per worker thread, and minimum number of points per leaf task
+    private static final int TASKS_PER_THREAD = 4;
+    private static final int MIN_POINTS_PER_TASK = 4096;
+
+    private final PointStore store;
+    private final double[] cos = new double[ANGLES];   // cos(theta_t) / width
+    private final double[] sin = new double[ANGLES];   // sin(theta_t) / width
+    private final double cx;        // center of the bounding box
+    private final double cy;
+    private final double offset;    // maxRho / width, where maxRho is an upper bound on |rho|
+    private final int bins;         // number of bins per angle
+
+    private final LineSegment[] lineSegments;
+
+    /**
+     * Finds (up to) the `maxLines` maximal line segments with the most points, among the segments
+     * containing 4 or more points, using the common ForkJoinPool.
+     * @param points
+     * @param maxLines the maximum number of line segments to return
+     */
+    public HoughCollinearPoints(Point[] points, int maxLines) {
+        this(points, maxLines, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Finds (up to) the `maxLines` maximal line segments with the most points, among the segments
+     * containing 4 or more points, using the given ForkJoinPool.
+     * @param points
+     * @param maxLines the maximum number of line segments to return
+     * @param pool the pool to run the voting in
+     * @throws IllegalArgumentException if maxLines is negative or pool is null
+     */
+    public HoughCollinearPoints(Point[] points, int maxLines, ForkJoinPool pool) {
+        if (maxLines < 0) throw new IllegalArgumentException("maxLines must be non-negative.");
+        if (pool == null) throw new IllegalArgumentException("pool cannot be null.");
+        store = new PointStore(points);
+        final int N = store.size();
+
+        // The bounding box determines the origin and the range of rho
+        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < N; i++) {
+            minX = Math.min(minX, store.x(i));
+            maxX = Math.max(maxX, store.x(i));
+            minY = Math.min(minY, store.y(i));
+            maxY = Math.max(maxY, store.y(i));
+        }
+        cx = N == 0 ? 0 : ((double) minX + maxX) / 2;
+        cy = N == 0 ? 0 : ((double) minY + maxY) / 2;
+        double maxRho = N == 0 ? 1
+                : Math.hypot(((double) maxX - minX) / 2, ((double) maxY - minY) / 2) + 1;
+
+        // At the sampled angle closest to its normal, the normal of a line is off by at most
+        // pi / (2 ANGLES), so the rho of its points varies by at most 2 maxRho * pi / (2 ANGLES).
+        // The coordinates are scaled by 1 / width, so that rho is measured in bins.
+        double width = Math.max(1.0, maxRho * Math.PI / ANGLES);
+        offset = maxRho / width;
+        bins = (int) (2 * offset) + 1;
+        for (int t = 0; t < ANGLES; t++) {
+            cos[t] = Math.cos(Math.PI * t / ANGLES) / width;
+            sin[t] = Math.sin(Math.PI * t / ANGLES) / width;
+        }
+
+        int threshold = Math.max(MIN_POINTS_PER_TASK,
+                                 N / (pool.getParallelism() * TASKS_PER_THREAD));
+        int[] votes = pool.invoke(new VoteTask(0, N, threshold));
+
+        lineSegments = refine(votes, maxLines);
+    }
+
+    // Returns rho (in bins, shifted to be positive) of point i at angle t
+    private double rho(int i, int t) {
+        return (store.x(i) - cx) * cos[t] + (store.y(i) - cy) * sin[t] + offset;
+    }
+
+    // Counts the votes of the points lo..hi-1 of the store in an accumulator of ANGLES * bins
+    // counters; the counter of bin r at angle t is at index t * bins + r.
+    private class VoteTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo;
+        private final int hi;
+        private final int threshold;
+
+        VoteTask(int lo, int hi, int threshold) {
+            this.lo = lo;
+            this.hi = hi;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (hi - lo <= threshold) {
+                int[] votes = new int[ANGLES * bins];
+                for (int i = lo; i < hi; i++) {
+                    double x = store.x(i) - cx;
+                    double y = store.y(i) - cy;
+                    for (int t = 0; t < ANGLES; t++) {
+                        // 0 < rho < 2 offset, hence the bin is in 0..bins-1
+                        votes[t * bins + (int) (x * cos[t] + y * sin[t] + offset)]++;
+                    }
+                }
+                return votes;
+            }
+
+            int mid = lo + (hi - lo) / 2;
+            VoteTask left = new VoteTask(lo, mid, threshold);
+            VoteTask right = new VoteTask(mid, hi, threshold);
+            left.fork();
+            int[] rightVotes = right.compute();
+            int[] leftVotes = left.join();
+            for (int k = 0; k < leftVotes.length; k++) {
+                leftVotes[k] += rightVotes[k];
+            }
+            return leftVotes;
+        }
+    }
+
+    // Refines the candidate bins with the most votes into at most maxLines exact segments
+    private LineSegment[] refine(int[] votes, int maxLines) {
+        final int N = store.size();
+
+        // Candidates: the bins with 4 or more votes that are local maxima among their neighbors,
+        // packed as (votes << 32) | (index of the bin), with the most votes first
+        long[] candidates = new long[votes.length];
+        int m = 0;
+        for (int t = 0; t < ANGLES; t++) {
+            for (int r = 0; r < bins; r++) {
+                int v = votes[t * bins + r];
+                if (v >= 4 && isLocalMaximum(votes, t, r)) {
+                    candidates[m++] = ((long) v << 32) | (t * bins + r);
+                }
+            }
+        }
+        Arrays.sort(candidates, 0, m);
+
+        int[] near = new int[N];                    // indices of the points near a candidate
+        double[] nearRho = new double[N];           // and their rho
+        int[] anchors = new int[N];                 // indices (into near) of those in its bin
+        LongIntHashMap counts = new LongIntHashMap(N);
+        List<long[]> lines = new ArrayList<>();     // {number of points, lowest, highest}
+
+        // lowest * N + highest of the segments found; at most one per refined candidate
+        int limit = (int) Math.min((long) maxLines * CANDIDATES_PER_LINE, m);
+        LongIntHashMap found = new LongIntHashMap(Math.min(limit, N));    // grows if needed
+        for (int c = m - 1; c >= m - limit; c--) {
+            int t = (int) candidates[c] / bins;
+            int r = (int) candidates[c] % bins;
+
+            int size = 0;
+            int inBin = 0;
+            for (int i = 0; i < N; i++) {
+                double rho = rho(i, t);
+                if (rho >= r - 1 && rho < r + 2) {
+                    if ((int) rho == r) anchors[inBin++] = size;
+                    nearRho[size] = rho;
+                    near[size++] = i;
+                }
+            }
+
+            // The exact line with the most points through one of the anchors, chosen evenly from
+            // the points in the candidate bin. The rho of the points on the line differs by at
+            // most 1 from the rho of the anchor.
+            int bestCount = 0;
+            int bestAnchor = -1;
+            long bestSlope = 0;
+            int tries = Math.min(ANCHORS, inBin);
+            for (int k = 0; k < tries; k++) {
+                int anchor = anchors[(int) ((long) k * inBin / tries)];
+                int a = near[anchor];
+                counts.clear();
+                for (int j = 0; j < size; j++) {
+                    if (j == anchor || Math.abs(nearRho[j] - nearRho[anchor]) > 1) continue;
+                    long slope = store.slopeKey(a, near[j]);
+                    int count = counts.get(slope, 0) + 1;
+                    counts.put(slope, count);
+                    if (count > bestCount) {
+                        bestCount = count;
+                        bestAnchor = a;
+                        bestSlope = slope;
+                    }
+                }
+            }
+            if (bestCount < 3) continue;
+
+            // The maximal segment on this line: all points p with (p - anchor) x (dx, dy) = 0
+            long dy = (int) (bestSlope >> 32);
+            long dx = (int) bestSlope;
+            int count = 0;
+            int lowest = -1;
+            int highest = -1;
+            for (int i = 0; i < N; i++) {
+                long cross = (store.x(i) - (long) store.x(bestAnchor)) * dy
+                        - (store.y(i) - (long) store.y(bestAnchor)) * dx;
+                if (cross == 0) {
+                    if (lowest < 0) lowest = i;
+                    highest = i;
+                    count++;
+                }
+            }
+            long key = (long) lowest * N + highest;
+            if (found.get(key, 0) == 0) {
+                found.put(key, 1);
+                lines.add(new long[] { count, lowest, highest });
+            }
+        }
+
+        // The segments with the most points first
+        lines.sort((p, q) -> Long.compare(q[0], p[0]));
+        LineSegment[] segments = new LineSegment[Math.min(maxLines, lines.size())];
+        for (int k = 0; k < segments.length; k++) {
+            segments[k] = store.segment((int) lines.get(k)[1], (int) lines.get(k)[2]);
+        }
+        return segments;
+    }
+
+    // Has bin r at angle t at least as many votes as its (up to 8) neighbors?
+    private boolean isLocalMaximum(int[] votes, int t, int r) {
+        int v = votes[t * bins + r];
+        for (int dt = -1; dt <= 1; dt++) {
+            for (int dr = -1; dr <= 1; dr++) {
+                int s = t + dt;
+                int q = r + dr;
+                if (s < 0 || s >= ANGLES || q < 0 || q >= bins) continue;
+                if (votes[s * bins + q] > v) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The number of line segments.
+     * @return
+     */
+    public int numberOfSegments() {
+        return lineSegments.length;
+    }
+
+    /**
+     * Includes the dominant maximal line segments found, with the most points first. Every segment
+     * contains 4 or more points, and it is included only once.
+     */
+    public LineSegment[] segments() {
+        return lineSegments.clone();
+    }
+
+    /**
+     * Test client: prints the (up to) maxLines dominant line segments in the input file (see
+     * BruteCollinearPoints for the input format) and the time it took.
+     *
+     * % java-algs4 HoughCollinearPoints input8.txt 2
+     * (3000, 4000) -> (20000, 21000)
+     * (10000, 0) -> (0, 10000)
+     * 2 segments in 0.015 s
+     */
+    public static void main(String[] args) {
+
+        // read the n points from a file
+        In in = new In(args[0]);
+        int maxLines = Integer.parseInt(args[1]);
+        int n = in.readInt();
+        Point[] points = new Point[n];
+        for (int i = 0; i < n; i++) {
+            int x = in.readInt();
+            int y = in.readInt();
+            points[i] = new Point(x, y);
+        }
+
+        long start = System.nanoTime();
+        HoughCollinearPoints hough = new HoughCollinearPoints(points, maxLines);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        for (LineSegment segment : hough.segments()) {
+            StdOut.println(segment);
+        }
+        StdOut.printf("%d segments in %.3f s%n", hough.numberOfSegments(), seconds);
+    }
+}
@@ -0,0 +1,173 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains all maximal line segments containing 4 or more points while points are added one at a
+ * time. Each call to addPoint() reports only the segments through the new point that are new or
+ * got longer, instead of recomputing all segments from scratch.
+ * <p>
+ * IDEA: Every line through two points has an exact key (see Point.lineKey()). For every line with
+ * 4 or more points we keep a Line object with its number of points and its lowest and highest
+ * point. When a point r is added, we count, for every line through r and an existing point, how
+ * many existing points lie on it (using a LongIntHashMap). A line with 3 or more existing points
+ * now contains 4 or more points: if it contained 4 or more before, r extends it; otherwise it is
+ * a new segment and its endpoints are taken from its points seen in the same pass.
+ * <p>
+ * Performance. addPoint() takes expected time linear in the number of points added so far. The
+ * index uses space proportional to the number of points plus the number of segments. All
+ * coordinates must be between 0 and 32767.
+ *
+ * @author Florian Woerz
+ */
+public class IncrementalCollinearPoints {
+
+    // Helper class for a line with 4 or more points
+    private static class Line {
+        private Point lo;       // lowest point on the line (natural order)
+        private Point hi;       // highest point on the line (natural order)
+        private int count;      // number of points on the line
+        private int stamp;      // number of the last insertion that changed the line
+
+        private void include(Point p) {
+            if (lo == null || p.compareTo(lo) < 0) lo = p;
+            if (hi == null || p.compareTo(hi) > 0) hi = p;
+        }
+
+        private LineSegment segment() {
+            return new LineSegment(lo, hi);
+        }
+    }
+
+    private final List<Point> points;       // all points added so far
+    private final Map<Long, Line> lines;    // lines with 4 or more points, by Point.lineKey()
+    private final LongIntHashMap counts;    // scratch: number of points per line through new point
+    private long[] keys;                    // scratch: keys[i] is the line key of points[i] and r
+
+
+    /**
+     * Initializes an empty index.
+     */
+    public IncrementalCollinearPoints() {
+        points = new ArrayList<>();
+        lines = new HashMap<>();
+        counts = new LongIntHashMap(16);
+        keys = new long[16];
+    }
+
+
+    /**
+     * Adds the point and returns the segments through it that are new or were extended.
+     *
+     * @param r the point to add
+     * @return the new or extended maximal segments containing r
+     * @throws IllegalArgumentException if r is null, has already been added, or a coordinate is
+     *                                  not between 0 and 32767
+     */
+    public LineSegment[] addPoint(Point r) {
+        if (r == null) throw new IllegalArgumentException("The point is null.");
+        if (!Point.inRange(r))
+            throw new IllegalArgumentException("Coordinates must be between 0 and 32767.");
+
+        // First pass: count the existing points on every line through r
+        final int n = points.size();
+        if (keys.length < n) keys = new long[2 * n];
+        counts.clear();
+        for (int i = 0; i < n; i++) {
+            Point p = points.get(i);
+            if (p.compareTo(r) == 0) throw new IllegalArgumentException("Duplicate point: " + r);
+            keys[i] = p.lineKey(r);
+            counts.put(keys[i], counts.get(keys[i], 0) + 1);
+        }
+
+        // Second pass: update every line with 3 or more existing points
+        int stamp = n + 1;
+        List<Line> changed = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Point p = points.get(i);
+            long key = keys[i];
+            int count = counts.get(key, 0);
+            if (count < 3) continue;
+
+            Line line = lines.get(key);
+            if (line == null) {
+                line = new Line();
+                lines.put(key, line);
+            }
+            if (line.stamp != stamp) {  // first point of this line in this pass
+                line.stamp = stamp;
+                line.count = count + 1;
+                line.include(r);
+                changed.add(line);
+            }
+            line.include(p);            // no-op for lines that existed before
+        }
+
+        points.add(r);
+
+        LineSegment[] result = new LineSegment[changed.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = changed.get(i).segment();
+        }
+        return result;
+    }
+
+
+    /**
+     * The number of points added so far.
+     * @return
+     */
+    public int numberOfPoints() {
+        return points.size();
+    }
+
+
+    /**
+     * The number of maximal line segments containing 4 or more points.
+     * @return
+     */
+    public int numberOfSegments() {
+        return lines.size();
+    }
+
+
+    /**
+     * Includes each maximal line segment containing 4 (or more) points exactly once.
+     */
+    public LineSegment[] segments() {
+        LineSegment[] result = new LineSegment[lines.size()];
+        int i = 0;
+        for (Line line : lines.values()) {
+            result[i++] = line.segment();
+        }
+        return result;
+    }
+
+    /**
+     * Test client: adds the points of the input file (see BruteCollinearPoints for the input
+     * format) one at a time and prints the segments reported by each insertion.
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        int n = in.readInt();
+        IncrementalCollinearPoints index = new IncrementalCollinearPoints();
+        for (int i = 0; i < n; i++) {
+            int x = in.readInt();
+            int y = in.readInt();
+            Point p = new Point(x, y);
+            for (LineSegment segment : index.addPoint(p)) {
+                StdOut.println("after adding " + p + ": " + segment);
+            }
+        }
+        StdOut.println(index.numberOfSegments() + " segments");
+    }
+}
@@ -0,0 +1,139 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Arrays;
+
+/**
+ * A map from primitive long keys to primitive int values, implemented as a hash table with open
+ * addressing (linear probing). In contrast to a HashMap<Long, Integer>, it never boxes keys or
+ * values and allocates nothing except when it grows, which makes it suitable for inner loops.
+ * <p>
+ * The key Long.MIN_VALUE is reserved to mark empty slots and cannot be stored.
+ * <p>
+ * Performance. get() and put() take constant expected time; clear() takes time linear in the
+ * capacity of the table. The table is kept at most half full and doubles when necessary.
+ *
+ * @author Florian Woerz
+ */
+public class LongIntHashMap {
+    private static final long EMPTY = Long.MIN_VALUE;   // marks an empty slot
+
+    private long[] keys;
+    private int[] values;
+    private int mask;       // keys.length - 1; the length is a power of two
+    private int n;          // number of keys in the map
+
+    /**
+     * Initializes an empty map that can hold `expectedSize` keys without growing.
+     *
+     * @param expectedSize the expected number of keys
+     * @throws IllegalArgumentException if expectedSize is negative or too large
+     */
+    public LongIntHashMap(int expectedSize) {
+        if (expectedSize < 0 || expectedSize > (1 << 29))
+            throw new IllegalArgumentException("expectedSize out of range: " + expectedSize);
+        int capacity = Integer.highestOneBit(Math.max(2, 2 * expectedSize) - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity];
+        mask = capacity - 1;
+        n = 0;
+    }
+
+    // Spreads the bits of the key over the index (finalizer of MurmurHash3)
+    private int slot(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+
+    /**
+     * Returns the number of keys in the map.
+     *
+     * @return number of keys
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the value associated with the key, or `defaultValue` if the map does not contain
+     * the key.
+     *
+     * @param key          the key
+     * @param defaultValue the value to return if the key is not in the map
+     * @return the value associated with the key; defaultValue otherwise
+     */
+    public int get(long key, int defaultValue) {
+        for (int i = slot(key); keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Associates the value with the key, replacing the old value if the key is already present.
+     *
+     * @param key   the key
+     * @param value the value
+     * @throws IllegalArgumentException if key is Long.MIN_VALUE
+     */
+    public void put(long key, int value) {
+        if (key == EMPTY) throw new IllegalArgumentException("The key Long.MIN_VALUE is reserved.");
+        int i = slot(key);
+        for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        n++;
+        if (2 * n > keys.length) grow();
+    }
+
+    // Doubles the capacity of the table and reinserts all keys
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(2 * oldKeys.length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    /**
+     * Removes all keys from the map (keeping its capacity).
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        n = 0;
+    }
+
+    // Some simple unit tests
+    public static void main(String[] args) {
+        LongIntHashMap map = new LongIntHashMap(2);
+        for (long key = -1000; key < 1000; key++) {
+            map.put(key << 32, (int) key);
+        }
+        StdOut.println(map.size());                     // ==> 2000
+        StdOut.println(map.get(-5L << 32, 0));          // ==> -5
+        StdOut.println(map.get(12345L, -1));            // ==> -1
+        map.put(-5L << 32, 42);
+        StdOut.println(map.get(-5L << 32, 0));          // ==> 42
+        map.clear();
+        StdOut.println(map.size());                     // ==> 0
+    }
+}
@@ -0,0 +1,162 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds all maximal line segments containing 4 (or any other minimum number of) points, like
+ * FastCollinearPoints, but distributes the work over all cores of a ForkJoinPool.
+ * <p>
+ * IDEA: FastCollinearPoints handles every anchor point p independently: it sorts its own copy of
+ * the point indices by the slope they make with p. Hence, we split the range of anchors
+ * recursively into halves until a range is small enough, and let each of these leaf tasks process
+ * its anchors sequentially with FastCollinearPoints.findSegments(). Every leaf allocates its
+ * scratch arrays once and reuses them for all of its anchors, and collects its segments in its own
+ * list. When two tasks are joined, their lists are concatenated in anchor order, so the workers
+ * never share mutable state.
+ * The segments are returned in exactly the same order as by FastCollinearPoints.
+ * <p>
+ * Performance. The total work is n^2 log n in the worst case, as for FastCollinearPoints, and
+ * with p cores the running time is about (n^2 log n) / p. Every worker uses space proportional to
+ * n for its scratch arrays.
+ *
+ * @author Florian Woerz
+ */
+public class ParallelCollinearPoints {
+
+    // number of leaf tasks per worker thread, to balance the load between the workers
+    private static final int TASKS_PER_THREAD = 8;
+
+    private final LineSegment[] lineSegments;
+
+    /**
+     * Finds all maximal line segments containing 4 or more points, using the common ForkJoinPool
+     * @param points
+     */
+    public ParallelCollinearPoints(Point[] points) {
+        this(points, FastCollinearPoints.DEFAULT_MIN_POINTS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Finds all maximal line segments containing 4 or more points, using the given ForkJoinPool
+     * @param points
+     * @param pool the pool to run the tasks in
+     */
+    public ParallelCollinearPoints(Point[] points, ForkJoinPool pool) {
+        this(points, FastCollinearPoints.DEFAULT_MIN_POINTS, pool);
+    }
+
+    /**
+     * Finds all maximal line segments containing `minPoints` or more points, using the given
+     * ForkJoinPool
+     * @param points
+     * @param minPoints the minimum number of points of a segment
+     * @param pool the pool to run the tasks in
+     * @throws IllegalArgumentException if minPoints is less than 2 or pool is null
+     */
+    public ParallelCollinearPoints(Point[] points, int minPoints, ForkJoinPool pool) {
+        FastCollinearPoints.checkMinPoints(minPoints);
+        if (pool == null) throw new IllegalArgumentException("pool cannot be null.");
+        PointStore store = new PointStore(points);
+
+        int threshold = Math.max(1, store.size() / (pool.getParallelism() * TASKS_PER_THREAD));
+        List<LineSegment> list = pool.invoke(new AnchorTask(store, minPoints, 0, store.size(),
+                                                            threshold));
+
+        lineSegments = list.toArray(new LineSegment[list.size()]);
+    }
+
+    // Finds the segments of the anchors lo..hi-1 of the store
+    private static class AnchorTask extends RecursiveTask<List<LineSegment>> {
+        private static final long serialVersionUID = 1L;
+
+        private final PointStore store;
+        private final int minPoints;
+        private final int lo;
+        private final int hi;
+        private final int threshold;
+
+        AnchorTask(PointStore store, int minPoints, int lo, int hi, int threshold) {
+            this.store = store;
+            this.minPoints = minPoints;
+            this.lo = lo;
+            this.hi = hi;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected List<LineSegment> compute() {
+            if (hi - lo <= threshold) {
+                List<LineSegment> list = new ArrayList<>();
+                FastCollinearPoints.Scratch scratch = new FastCollinearPoints.Scratch(store.size());
+                FastCollinearPoints.SegmentConsumer consumer = (x0, y0, x1, y1, count) ->
+                        list.add(new LineSegment(new Point(x0, y0), new Point(x1, y1)));
+                for (int i = lo; i < hi; i++) {
+                    FastCollinearPoints.findSegments(store, i, minPoints, scratch, consumer);
+                }
+                return list;
+            }
+
+            int mid = lo + (hi - lo) / 2;
+            AnchorTask left = new AnchorTask(store, minPoints, lo, mid, threshold);
+            AnchorTask right = new AnchorTask(store, minPoints, mid, hi, threshold);
+            left.fork();
+            List<LineSegment> rightList = right.compute();
+            List<LineSegment> leftList = left.join();
+            leftList.addAll(rightList);
+            return leftList;
+        }
+    }
+
+    /**
+     * The number of line segments.
+     * @return
+     */
+    public int numberOfSegments() {
+        return lineSegments.length;
+    }
+
+    /**
+     * Includes each maximal line segment containing 4 (or more) points exactly once.
+     */
+    public LineSegment[] segments() {
+        return lineSegments.clone();
+    }
+
+    /**
+     * Test client: prints the line segments found in the input file (see BruteCollinearPoints for
+     * the input format) and checks that FastCollinearPoints finds the same ones.
+     */
+    public static void main(String[] args) {
+
+        // read the n points from a file
+        In in = new In(args[0]);
+        int n = in.readInt();
+        Point[] points = new Point[n];
+        for (int i = 0; i < n; i++) {
+            int x = in.readInt();
+            int y = in.readInt();
+            points[i] = new Point(x, y);
+        }
+
+        LineSegment[] parallel = new ParallelCollinearPoints(points).segments();
+        LineSegment[] sequential = new FastCollinearPoints(points).segments();
+        for (LineSegment segment : parallel) {
+            StdOut.println(segment);
+        }
+
+        boolean same = parallel.length == sequential.length;
+        for (int i = 0; same && i < parallel.length; i++) {
+            same = parallel[i].toString().equals(sequential[i].toString());
+        }
+        StdOut.println("same as FastCollinearPoints: " + same);
+    }
+}
@@ -77,6 +77,122 @@ public class Point implements Comparable<Point> {
         }
     }
 
+    /**
+     * Returns an exact key for the slope between this point and the specified point: two keys
+     * are equal if and only if the two slopes (as defined in slopeTo()) are equal. In contrast to
+     * comparing the results of slopeTo(), no floating-point division is involved.
+     * The key packs the direction (dy, dx) from this point to `that`, reduced by their greatest
+     * common divisor and normalized to dx > 0 (or to (1, 0) for vertical, and (0, 1) for
+     * horizontal line segments), into a long: dy in the upper and dx in the lower 32 bits. The key
+     * is 0 if the two points are equal. The keys are not ordered by slope.
+     * The key is exact for all coordinates of absolute value less than 2^30.
+     *
+     * @param  that the other point
+     * @return the exact slope key between this point and the specified point
+     */
+    public long slopeKey(Point that) {
+        if (that == null) throw new java.lang.NullPointerException("Argument cannot be null.");
+        return slopeKey(that.x - this.x, that.y - this.y);
+    }
+
+    // Exact slope key (see slopeKey(Point)) of the direction (dx, dy)
+    static long slopeKey(int dx, int dy) {
+        if (dx == 0) return (dy == 0) ? 0L : (1L << 32);   // equal points or vertical
+        if (dy == 0) return 1L;                             // horizontal
+        if (dx < 0) {
+            dx = -dx;
+            dy = -dy;
+        }
+        int gcd = gcd(Math.abs(dy), dx);
+        dy /= gcd;
+        dx /= gcd;
+        return ((long) dy << 32) | dx;
+    }
+
+    // Greatest common divisor of two positive integers (Euclid's algorithm)
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int tmp = a % b;
+            a = b;
+            b = tmp;
+        }
+        return a;
+    }
+
+    /**
+     * Returns an exact key for the line through this point and the specified point: two keys are
+     * equal if and only if the two lines are the same. With the direction (dy, dx) normalized as in
+     * slopeKey(), every point (x, y) on the line satisfies dx * y - dy * x = c for the same
+     * constant c. The key packs dy (16 bits), dx (16 bits), and c (32 bits) into a long.
+     * The coordinates of both points must be between 0 and 32767 (as in the assignment).
+     *
+     * @param  that the other point
+     * @return the exact key of the line through this point and the specified point
+     * @throws IllegalArgumentException if the points are equal or a coordinate is out of range
+     */
+    public long lineKey(Point that) {
+        if (that == null) throw new java.lang.NullPointerException("Argument cannot be null.");
+        if (!inRange(this) || !inRange(that))
+            throw new IllegalArgumentException("Coordinates must be between 0 and 32767.");
+        long slope = slopeKey(that);
+        if (slope == 0L) throw new IllegalArgumentException("The points are equal: " + this);
+        int dy = (int) (slope >> 32);
+        int dx = (int) slope;
+        int c = dx * this.y - dy * this.x;  // |c| <= 2 * 32767^2 < 2^31
+        return ((long) (dy & 0xFFFF) << 48) | ((long) dx << 32) | (c & 0xFFFFFFFFL);
+    }
+
+    // Are both coordinates of p between 0 and 32767?
+    static boolean inRange(Point p) {
+        return p.x >= 0 && p.x <= 32767 && p.y >= 0 && p.y <= 32767;
+    }
+
+    /**
+     * Compares the slope from this point to p with the slope from this point to q, exactly and
+     * without floating-point division, in the same order as Double.compare() on the results of
+     * slopeTo(): the slope to an equal point (-infinity) is the smallest, then come the finite
+     * slopes in increasing order, and the slope of a vertical line segment (+infinity) is the
+     * largest. Exact for all coordinates of absolute value less than 2^30.
+     *
+     * @param  p the first point
+     * @param  q the second point
+     * @return a negative integer, zero, or a positive integer as the slope to p is less than,
+     *         equal to, or greater than the slope to q
+     */
+    private int compareSlopes(Point p, Point q) {
+        return compareSlopes(p.x - this.x, p.y - this.y, q.x - this.x, q.y - this.y);
+    }
+
+    // Exact comparison (see compareSlopes(Point, Point)) of the slopes of the directions
+    // (dx1, dy1) and (dx2, dy2)
+    static int compareSlopes(long dx1, long dy1, long dx2, long dy2) {
+        // rank -1: equal points, 0: finite slope, +1: vertical
+        int rank1 = (dx1 != 0) ? 0 : (dy1 == 0) ? -1 : 1;
+        int rank2 = (dx2 != 0) ? 0 : (dy2 == 0) ? -1 : 1;
+        if (rank1 != 0 || rank2 != 0) return Integer.compare(rank1, rank2);
+
+        // dy1 / dx1 < dy2 / dx2  <=>  dy1 * dx2 < dy2 * dx1, if dx1 > 0 and dx2 > 0
+        if (dx1 < 0) {
+            dx1 = -dx1;
+            dy1 = -dy1;
+        }
+        if (dx2 < 0) {
+            dx2 = -dx2;
+            dy2 = -dy2;
+        }
+        return Long.compare(dy1 * dx2, dy2 * dx1);
+    }
+
+    // Returns the x-coordinate; for compact point stores like PointStore
+    int x() {
+        return x;
+    }
+
+    // Returns the y-coordinate; for compact point stores like PointStore
+    int y() {
+        return y;
+    }
+
     /**
      * Compares two points by y-coordinate, breaking ties by x-coordinate.
      * Formally, the invoking point (x0, y0) is less than the argument point
@@ -100,7 +216,8 @@ public class Point implements Comparable<Point> {
 
     /**
      * Compares two points by the slope they make with this point.
-     * The slope is defined as in the slopeTo() method.
+     * The slope is defined as in the slopeTo() method, but the comparison is exact and uses only
+     * integer arithmetic (see compareSlopes()).
      *
      * @return the Comparator that defines this ordering on points
      */
@@ -118,13 +235,9 @@ public class Point implements Comparable<Point> {
         }
 
         public int compare(Point p, Point q) {
-            double slope1 = p.slopeTo(point);
-            double slope2 = q.slopeTo(point);
-            return Double.compare(slope1, slope2);
-            // This replaces the following code:
-            // if (slope1 == slope2) return 0;
-            // if (slope1 >  slope2) return 1;
-            // return -1;
+            return point.compareSlopes(p, q);
+            // This replaces the following floating-point code:
+            // return Double.compare(point.slopeTo(p), point.slopeTo(q));
         }
     }
 
@@ -0,0 +1,181 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Arrays;
+
+/**
+ * Stores a set of points compactly as two parallel int arrays xs[] and ys[] ("struct of arrays"),
+ * sorted in the natural order of Point (by y-coordinate, breaking ties by x-coordinate). Hence,
+ * the index of a point is also its rank, and i < j if and only if point i is less than point j.
+ * <p>
+ * The collinear algorithms work on indices into a PointStore instead of Point objects: the
+ * coordinates of consecutive points lie next to each other in memory, and computing a slope does
+ * not need to follow object references or call methods on Point. Point objects are only created
+ * by point() and segment(), i.e., when LineSegment objects are returned to the client.
+ * <p>
+ * Performance. Construction takes time proportional to n log n (for sorting) and the store uses
+ * 8n bytes for the coordinates; all other operations take constant time.
+ *
+ * @author Florian Woerz
+ */
+public class PointStore {
+    private final int[] xs;     // x-coordinates, in natural order of the points
+    private final int[] ys;     // y-coordinates, in natural order of the points
+    private final boolean compact;  // are all coordinates between 0 and 32767?
+
+    /**
+     * Creates a store of the given points (the argument is not mutated).
+     *
+     * @param points the points
+     * @throws IllegalArgumentException if the argument is null, if any point in the array is null,
+     *                                  or if the array contains a repeated point
+     */
+    public PointStore(Point[] points) {
+        // Corner cases. See BruteCollinearPoints for details.
+        if (points == null) throw new IllegalArgumentException("The array `points` is null.");
+        for (Point p : points) {
+            if (p == null) throw new IllegalArgumentException("The array contains a null element.");
+        }
+
+        final int N = points.length;
+
+        // Sort the points by packing them into longs whose natural order is the order of Point:
+        // y in the upper and x in the lower 32 bits (shifted to be unsigned).
+        long[] packed = new long[N];
+        for (int i = 0; i < N; i++) {
+            packed[i] = ((long) points[i].y() << 32) | (points[i].x() - (long) Integer.MIN_VALUE);
+        }
+        Arrays.sort(packed);
+
+        xs = new int[N];
+        ys = new int[N];
+        boolean inRange = true;
+        for (int i = 0; i < N; i++) {
+            if (i > 0 && packed[i] == packed[i - 1])
+                throw new IllegalArgumentException("The array contains a duplicate entry.");
+            ys[i] = (int) (packed[i] >> 32);
+            xs[i] = (int) ((packed[i] & 0xFFFFFFFFL) + Integer.MIN_VALUE);
+            inRange = inRange && Point.inRange(points[i]);
+        }
+        compact = inRange;
+    }
+
+    /**
+     * Are all coordinates between 0 and 32767? Only then compactSlopeKey() may be used.
+     *
+     * @return true if all coordinates are between 0 and 32767; false otherwise
+     */
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Returns the number of points.
+     *
+     * @return number of points
+     */
+    public int size() {
+        return xs.length;
+    }
+
+    /**
+     * Returns the x-coordinate of point i.
+     *
+     * @param i the index of the point
+     * @return x-coordinate
+     */
+    public int x(int i) {
+        return xs[i];
+    }
+
+    /**
+     * Returns the y-coordinate of point i.
+     *
+     * @param i the index of the point
+     * @return y-coordinate
+     */
+    public int y(int i) {
+        return ys[i];
+    }
+
+    /**
+     * Returns the exact slope key from point i to point j, as in Point.slopeKey().
+     *
+     * @param i the index of the first point
+     * @param j the index of the second point
+     * @return the exact slope key
+     */
+    public long slopeKey(int i, int j) {
+        return Point.slopeKey(xs[j] - xs[i], ys[j] - ys[i]);
+    }
+
+    /**
+     * Returns the exact slope key from point i to point j (as in Point.slopeKey()) packed into 32
+     * bits: the reduced dy (offset by 2^15) in the upper and dx in the lower 16 bits. Two keys are
+     * equal if and only if the slopes are equal. The key is a bit pattern, not a number: it is
+     * negative whenever dy >= 0, and the order of the keys is not the order of the slopes.
+     * Requires isCompact().
+     *
+     * @param i the index of the first point
+     * @param j the index of the second point
+     * @return the compact exact slope key
+     */
+    public int compactSlopeKey(int i, int j) {
+        assert compact;
+        long key = slopeKey(i, j);
+        int dy = (int) (key >> 32);     // between -32767 and 32767 (or 1 if vertical)
+        int dx = (int) key;             // between 0 and 32767
+        return ((dy + 32768) << 16) | dx;
+    }
+
+    /**
+     * Compares the slope from point `anchor` to point i with the slope from point `anchor` to point
+     * j, exactly and in the same order as Point.slopeOrder().
+     *
+     * @param anchor the index of the anchor point
+     * @param i      the index of the first point
+     * @param j      the index of the second point
+     * @return a negative integer, zero, or a positive integer as the first slope is less than,
+     *         equal to, or greater than the second one
+     */
+    public int compareSlopes(int anchor, int i, int j) {
+        return Point.compareSlopes(xs[i] - xs[anchor], ys[i] - ys[anchor],
+                                   xs[j] - xs[anchor], ys[j] - ys[anchor]);
+    }
+
+    /**
+     * Creates the Point object of point i.
+     *
+     * @param i the index of the point
+     * @return the point
+     */
+    public Point point(int i) {
+        return new Point(xs[i], ys[i]);
+    }
+
+    /**
+     * Creates the line segment between points i and j.
+     *
+     * @param i the index of the first endpoint
+     * @param j the index of the second endpoint
+     * @return the line segment
+     */
+    public LineSegment segment(int i, int j) {
+        return new LineSegment(point(i), point(j));
+    }
+
+    // Some simple unit tests
+    public static void main(String[] args) {
+        Point[] points = { new Point(3, 1), new Point(1, 2), new Point(0, 1), new Point(2, 2) };
+        PointStore store = new PointStore(points);
+        for (int i = 0; i < store.size(); i++) {
+            StdOut.println(store.point(i));     // ==> (0, 1), (3, 1), (1, 2), (2, 2)
+        }
+        StdOut.println(store.slopeKey(2, 3) == store.slopeKey(0, 1));  // ==> true
+        StdOut.println(store.compareSlopes(0, 1, 2) < 0);               // ==> true
+    }
+}
@@ -1,9 +1,10 @@
 /******************************************************************************
  *  Compilation:  javac KdTreeGenerator.java
- *  Execution:    java KdTreeGenerator n
+ *  Execution:    java KdTreeGenerator n [seed]
  *  Dependencies: 
  *
  *  Creates n random points in the unit square and print to standard output.
+ *  If a seed is given, the same seed always produces the same points.
  *
  *  % java KdTreeGenerator 5
  *  0.195080 0.938777
@@ -14,16 +15,26 @@
  *
  ******************************************************************************/
 
-import edu.princeton.cs.algs4.StdRandom;
 import edu.princeton.cs.algs4.StdOut;
 
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
 public class KdTreeGenerator {
 
     public static void main(String[] args) {
         int n = Integer.parseInt(args[0]);
+        RandomGenerator random;
+        if (args.length > 1) random = new SplittableRandom(Long.parseLong(args[1]));
+        else random = new SplittableRandom();
+        generate(n, random);
+    }
+
+    // prints n random points in the unit square drawn from the given generator
+    public static void generate(int n, RandomGenerator random) {
         for (int i = 0; i < n; i++) {
-            double x = StdRandom.uniform(0.0, 1.0);
-            double y = StdRandom.uniform(0.0, 1.0);
+            double x = random.nextDouble(0.0, 1.0);
+            double y = random.nextDouble(0.0, 1.0);
             StdOut.printf("%8.6f %8.6f\n", x, y);
         }
     }
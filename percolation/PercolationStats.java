@@ -4,15 +4,19 @@
  *  Submitted:         2022/02/25
  **************************************************************************** */
 
-import edu.princeton.cs.algs4.StdRandom;
 import edu.princeton.cs.algs4.StdStats;
 
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
 /**
  * Given two integers, n and t, this class runs t percolation simulations over (n x n)-grids and
  * for each experiment record the percentage of sites that had to be opened (choosing uniformly at
  * random) for the system to percolate. This will be used to calculate the mean (interpreted as the
  * "percolation threshold"), standard deviation and the endpoints of the 95% confidence intervals
  * for the "percolation threshold" obtained in the experiments.
+ * The random sites are drawn from a RandomGenerator that can be passed to the constructor, e.g., a
+ * seeded SplittableRandom to make the experiments reproducible.
  */
 public class PercolationStats {
     // If the number of trails is sufficiently large (say, at least 30), the 95% confidence interval
@@ -33,8 +37,21 @@ public class PercolationStats {
      * @param trials The number of experiments to be run
      */
     public PercolationStats(int n, int trials) {
+        this(n, trials, new SplittableRandom());
+    }
+
+
+    /**
+     * Executes `trials` many independent trials of (n x n)-grid percolation experiments, choosing
+     * the sites to open with the random number generator `random`.
+     * @param n The width and length of the percolation grids
+     * @param trials The number of experiments to be run
+     * @param random The random number generator to use
+     */
+    public PercolationStats(int n, int trials, RandomGenerator random) {
         if (n <= 0) throw new IllegalArgumentException("n must be positive.");
         if (trials <= 0) throw new IllegalArgumentException("trials must be positive.");
+        if (random == null) throw new IllegalArgumentException("random cannot be null.");
 
         this.trials = trials;
         thresholds = new double[trials];
@@ -52,8 +69,8 @@ public class PercolationStats {
                 boolean openNode = true;
 
                 while (openNode) {
-                    row = StdRandom.uniform(1, n + 1); // generate random row between 1 and n
-                    col = StdRandom.uniform(1, n + 1); // generate random column between 1 and n
+                    row = random.nextInt(1, n + 1);   // generate random row between 1 and n
+                    col = random.nextInt(1, n + 1);   // generate random column between 1 and n
                     openNode = perc.isOpen(row, col);
                 }
 
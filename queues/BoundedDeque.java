@@ -0,0 +1,595 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implements a bounded, thread-safe double-ended queue backed by a fixed-size ring buffer. In
+ * contrast to Deque.java, the capacity is fixed at construction time (and rounded up to a power of
+ * two), so producers get backpressure instead of unbounded growth: they either block, time out, or
+ * are told that the deque is full.
+ * <p>
+ * For both ends the deque offers
+ * -- addFirst/addLast and removeFirst/removeLast, which throw an exception if the deque is full
+ * or empty, respectively,
+ * -- offerFirst/offerLast and pollFirst/pollLast, which return false or null instead, optionally
+ * after waiting for a given amount of time, and
+ * -- putFirst/putLast and takeFirst/takeLast, which block until space or an item is available.
+ * <p>
+ * The batch operations addAll(a) and drainTo(a, max) move many items while acquiring the lock only
+ * once per batch (in the spirit of the Disruptor), which amortizes the synchronization costs.
+ * <p>
+ * Performance. All single-item operations take constant worst-case time (apart from waiting for
+ * the lock). The batch operations take time linear in the number of items moved. A bounded deque
+ * with capacity c uses one array slot per unit of capacity, i.e., memory linear in c, and never
+ * allocates after construction.
+ * The iterator works on a snapshot and takes time and memory linear in the number of items.
+ *
+ * @author Florian Woerz
+ */
+public class BoundedDeque<Item> implements Iterable<Item> {
+    private final Item[] a;         // ring buffer holding the items
+    private final int mask;         // a.length - 1, used to wrap indices around
+    private int head;               // index of the front item
+    private int n;                  // number of items on the deque
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+
+    /**
+     * Initializes an empty bounded deque that holds at least `capacity` items. The capacity is
+     * rounded up to the next power of two.
+     *
+     * @param capacity the minimum number of items the deque can hold
+     * @throws IllegalArgumentException if capacity is not positive or larger than 2^30
+     */
+    public BoundedDeque(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30))
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        a = (Item[]) new Object[size];
+        mask = size - 1;
+        head = 0;
+        n = 0;
+    }
+
+
+    /**
+     * Checks if the deque is empty.
+     *
+     * @return true if the deque is empty; false otherwise
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+
+    /**
+     * Returns the number of items on the deque.
+     *
+     * @return number of elements in deque
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return n;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Returns the maximum number of items the deque can hold.
+     *
+     * @return capacity of the deque (a power of two)
+     */
+    public int capacity() {
+        return a.length;
+    }
+
+
+    /**
+     * Adds the item to the front.
+     *
+     * @param item the item to add
+     * @throws IllegalStateException if the deque is full
+     */
+    public void addFirst(Item item) {
+        if (!offerFirst(item)) throw new IllegalStateException("Deque overflow");
+    }
+
+
+    /**
+     * Adds the item to the back.
+     *
+     * @param item the item to add
+     * @throws IllegalStateException if the deque is full
+     */
+    public void addLast(Item item) {
+        if (!offerLast(item)) throw new IllegalStateException("Deque overflow");
+    }
+
+
+    /**
+     * Adds the item to the front if the deque is not full.
+     *
+     * @param item the item to add
+     * @return true if the item was added; false if the deque is full
+     */
+    public boolean offerFirst(Item item) {
+        checkItem(item);
+        lock.lock();
+        try {
+            if (n == a.length) return false;
+            linkFirst(item);
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Adds the item to the back if the deque is not full.
+     *
+     * @param item the item to add
+     * @return true if the item was added; false if the deque is full
+     */
+    public boolean offerLast(Item item) {
+        checkItem(item);
+        lock.lock();
+        try {
+            if (n == a.length) return false;
+            linkLast(item);
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Adds the item to the front, waiting up to the given time for space to become available.
+     *
+     * @param item    the item to add
+     * @param timeout how long to wait
+     * @param unit    the unit of `timeout`
+     * @return true if the item was added; false if the deque stayed full
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean offerFirst(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+        checkItem(item);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (n == a.length) {
+                if (nanos <= 0) return false;
+                nanos = notFull.awaitNanos(nanos);
+            }
+            linkFirst(item);
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Adds the item to the back, waiting up to the given time for space to become available.
+     *
+     * @param item    the item to add
+     * @param timeout how long to wait
+     * @param unit    the unit of `timeout`
+     * @return true if the item was added; false if the deque stayed full
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean offerLast(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+        checkItem(item);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (n == a.length) {
+                if (nanos <= 0) return false;
+                nanos = notFull.awaitNanos(nanos);
+            }
+            linkLast(item);
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Adds the item to the front, waiting as long as necessary for space to become available.
+     *
+     * @param item the item to add
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void putFirst(Item item) throws InterruptedException {
+        checkItem(item);
+        lock.lockInterruptibly();
+        try {
+            while (n == a.length) notFull.await();
+            linkFirst(item);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Adds the item to the back, waiting as long as necessary for space to become available.
+     *
+     * @param item the item to add
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void putLast(Item item) throws InterruptedException {
+        checkItem(item);
+        lock.lockInterruptibly();
+        try {
+            while (n == a.length) notFull.await();
+            linkLast(item);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Removes and returns the item from the front.
+     *
+     * @return the item from the front
+     * @throws java.util.NoSuchElementException if the deque is empty
+     */
+    public Item removeFirst() {
+        Item item = pollFirst();
+        if (item == null) throw new NoSuchElementException("Deque underflow");
+        return item;
+    }
+
+
+    /**
+     * Removes and returns the item from the back.
+     *
+     * @return the item from the back
+     * @throws java.util.NoSuchElementException if the deque is empty
+     */
+    public Item removeLast() {
+        Item item = pollLast();
+        if (item == null) throw new NoSuchElementException("Deque underflow");
+        return item;
+    }
+
+
+    /**
+     * Removes and returns the item from the front if the deque is not empty.
+     *
+     * @return the item from the front; null if the deque is empty
+     */
+    public Item pollFirst() {
+        lock.lock();
+        try {
+            return (n == 0) ? null : unlinkFirst();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Removes and returns the item from the back if the deque is not empty.
+     *
+     * @return the item from the back; null if the deque is empty
+     */
+    public Item pollLast() {
+        lock.lock();
+        try {
+            return (n == 0) ? null : unlinkLast();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Removes and returns the item from the front, waiting up to the given time for an item to
+     * become available.
+     *
+     * @param timeout how long to wait
+     * @param unit    the unit of `timeout`
+     * @return the item from the front; null if the deque stayed empty
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Item pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (n == 0) {
+                if (nanos <= 0) return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return unlinkFirst();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Removes and returns the item from the back, waiting up to the given time for an item to
+     * become available.
+     *
+     * @param timeout how long to wait
+     * @param unit    the unit of `timeout`
+     * @return the item from the back; null if the deque stayed empty
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Item pollLast(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (n == 0) {
+                if (nanos <= 0) return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return unlinkLast();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Removes and returns the item from the front, waiting as long as necessary for an item to
+     * become available.
+     *
+     * @return the item from the front
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Item takeFirst() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (n == 0) notEmpty.await();
+            return unlinkFirst();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Removes and returns the item from the back, waiting as long as necessary for an item to
+     * become available.
+     *
+     * @return the item from the back
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Item takeLast() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (n == 0) notEmpty.await();
+            return unlinkLast();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Adds all items of the array to the back, in array order. Whenever the deque is full, waits
+     * for consumers to make room; every time the lock is acquired, as many items as fit are added.
+     *
+     * @param items the items to add
+     * @throws IllegalArgumentException if the array or any of its items is null
+     * @throws InterruptedException     if interrupted while waiting; the items added so far stay
+     *                                  on the deque
+     */
+    public void addAll(Item[] items) throws InterruptedException {
+        if (items == null) throw new IllegalArgumentException("The array cannot be null.");
+        for (Item item : items) checkItem(item);
+
+        int i = 0;
+        while (i < items.length) {
+            lock.lockInterruptibly();
+            try {
+                while (n == a.length) notFull.await();
+                int batch = Math.min(a.length - n, items.length - i);
+                for (int j = 0; j < batch; j++) {
+                    a[(head + n) & mask] = items[i++];
+                    n++;
+                }
+                notEmpty.signalAll();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+
+    /**
+     * Removes up to `max` items from the front and writes them into the array, in order, without
+     * waiting. The lock is acquired only once.
+     *
+     * @param items the array to write the removed items to
+     * @param max   the maximum number of items to remove
+     * @return the number of items removed, i.e., written to items[0..count-1]
+     * @throws IllegalArgumentException if the array is null, max is negative or the array has
+     *                                  fewer than max entries
+     */
+    public int drainTo(Item[] items, int max) {
+        if (items == null) throw new IllegalArgumentException("The array cannot be null.");
+        if (max < 0 || max > items.length)
+            throw new IllegalArgumentException("max must be between 0 and " + items.length);
+
+        lock.lock();
+        try {
+            int count = Math.min(max, n);
+            for (int i = 0; i < count; i++) {
+                items[i] = a[head];
+                a[head] = null; // avoid loitering
+                head = (head + 1) & mask;
+            }
+            n -= count;
+            if (count > 0) notFull.signalAll();
+            return count;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    // Helper methods; the caller must hold the lock and check for space or items.
+
+    private void linkFirst(Item item) {
+        head = (head - 1) & mask;
+        a[head] = item;
+        n++;
+        notEmpty.signal();
+    }
+
+    private void linkLast(Item item) {
+        a[(head + n) & mask] = item;
+        n++;
+        notEmpty.signal();
+    }
+
+    private Item unlinkFirst() {
+        Item item = a[head];
+        a[head] = null; // avoid loitering
+        head = (head + 1) & mask;
+        n--;
+        notFull.signal();
+        return item;
+    }
+
+    private Item unlinkLast() {
+        int tail = (head + n - 1) & mask;
+        Item item = a[tail];
+        a[tail] = null; // avoid loitering
+        n--;
+        notFull.signal();
+        return item;
+    }
+
+    private void checkItem(Item item) {
+        if (item == null) throw new IllegalArgumentException("Item cannot be null.");
+    }
+
+
+    /**
+     * Returns an iterator over a snapshot of the items in order from front to back. Changes made to
+     * the deque after the iterator was created are not reflected by the iterator.
+     *
+     * @return iterator
+     */
+    public Iterator<Item> iterator() {
+        return new SnapshotIterator();
+    }
+
+    private class SnapshotIterator implements Iterator<Item> {
+        private final Item[] copy;
+        private int current = 0;
+
+        public SnapshotIterator() {
+            lock.lock();
+            try {
+                copy = (Item[]) new Object[n];
+                for (int i = 0; i < n; i++) {
+                    copy[i] = a[(head + i) & mask];
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean hasNext() {
+            return current < copy.length;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        public Item next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return copy[current++];
+        }
+    }
+
+    // Some simple unit tests
+    public static void main(String[] args) throws InterruptedException {
+        BoundedDeque<Integer> deque = new BoundedDeque<>(3);
+        StdOut.println(deque.capacity());           // ==> 4
+        deque.addLast(2);
+        deque.addFirst(1);
+        deque.addLast(3);
+        deque.addLast(4);
+        StdOut.println(deque.offerLast(5));         // ==> false
+        for (int e : deque) {
+            StdOut.println(e);                      // ==> 1, 2, 3, 4
+        }
+        StdOut.println(deque.removeLast());         // ==> 4
+        StdOut.println(deque.removeFirst());        // ==> 1
+
+        // A producer hands 1000 items to a consumer through a deque of capacity 16
+        final int total = 1000;
+        final BoundedDeque<Integer> channel = new BoundedDeque<>(16);
+        Thread producer = new Thread(() -> {
+            try {
+                Integer[] batch = new Integer[10];
+                for (int i = 0; i < total; i += batch.length) {
+                    for (int j = 0; j < batch.length; j++) batch[j] = i + j;
+                    channel.addAll(batch);
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+
+        long sum = 0;
+        int received = 0;
+        Integer[] buffer = new Integer[8];
+        while (received < total) {
+            Integer first = channel.pollFirst(1, TimeUnit.SECONDS);
+            if (first == null) break;
+            sum += first;
+            received++;
+            int count = channel.drainTo(buffer, Math.min(buffer.length, total - received));
+            for (int i = 0; i < count; i++) sum += buffer[i];
+            received += count;
+        }
+        producer.join();
+        StdOut.println(received + " " + sum);       // ==> 1000 499500
+    }
+}
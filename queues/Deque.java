@@ -9,6 +9,10 @@ import edu.princeton.cs.algs4.StdOut;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implements a double-ended queue or deque (pronounced "deck"), which is a generalization of a
@@ -20,6 +24,11 @@ import java.util.NoSuchElementException;
  * worst-case time. A deque containing n items uses at most 48n + 192 bytes of memory. Additionally,
  * the iterator implementation supports each operation (including construction) in constant
  * worst-case time.
+ * <p>
+ * Streams. The deque reports its exact size to streams and splits into halves of known size, so
+ * that parallelStream() can distribute the items evenly over the common ForkJoin pool. Splitting
+ * off half of the k remaining items takes time proportional to k / 2 (to walk to the middle node),
+ * but no copying.
  * (In the file RandomizedQueue.java we will also implement a randomized queue.)
  * The time and memory complexities of the implementation abide by the following summary table:
  * | Deque                        | Randomized Queue
@@ -187,6 +196,87 @@ public class Deque<Item> implements Iterable<Item> {
         }
     }
 
+
+    /**
+     * Returns a spliterator over the items in order from front to back. The spliterator is SIZED
+     * and SUBSIZED and splits the remaining items into two halves.
+     *
+     * @return spliterator
+     */
+    @Override
+    public Spliterator<Item> spliterator() {
+        return new FrontToBackSpliterator(front, n);
+    }
+
+
+    /**
+     * Returns a sequential stream over the items in order from front to back.
+     *
+     * @return sequential stream
+     */
+    public Stream<Item> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+
+    /**
+     * Returns a parallel stream over the items in order from front to back.
+     *
+     * @return parallel stream
+     */
+    public Stream<Item> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    // Covers the `remaining` nodes starting at `current`.
+    private class FrontToBackSpliterator implements Spliterator<Item> {
+        private Node current;
+        private int remaining;
+
+        public FrontToBackSpliterator(Node current, int remaining) {
+            this.current = current;
+            this.remaining = remaining;
+        }
+
+        public boolean tryAdvance(Consumer<? super Item> action) {
+            if (action == null) throw new NullPointerException();
+            if (remaining == 0) return false;
+            Item item = current.item;
+            current = current.next;
+            remaining--;
+            action.accept(item);
+            return true;
+        }
+
+        public void forEachRemaining(Consumer<? super Item> action) {
+            if (action == null) throw new NullPointerException();
+            for (; remaining > 0; remaining--) {
+                action.accept(current.item);
+                current = current.next;
+            }
+        }
+
+        public Spliterator<Item> trySplit() {
+            if (remaining < 2) return null;
+            // Hand off the first half and keep the second one.
+            int half = remaining / 2;
+            Node prefix = current;
+            for (int i = 0; i < half; i++) {
+                current = current.next;
+            }
+            remaining -= half;
+            return new FrontToBackSpliterator(prefix, half);
+        }
+
+        public long estimateSize() {
+            return remaining;
+        }
+
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+
     // Some simple unit tests
     public static void main(String[] args) {
         // As an example for Deque, we know that if we call addFirst() with the numbers 1 through n
@@ -228,6 +318,13 @@ public class Deque<Item> implements Iterable<Item> {
         }
         deque2.removeLast();    // ==> 1
 
+        // Example 3: parallel streams split the deque into halves
+        Deque<Integer> deque3 = new Deque<>();
+        for (int i = 1; i <= 100000; i++) {
+            deque3.addLast(i);
+        }
+        StdOut.println(deque3.parallelStream().mapToLong(i -> i).sum());   // ==> 5000050000
+        StdOut.println(deque3.stream().findFirst().get());                  // ==> 1
 
     }
 }
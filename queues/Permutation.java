@@ -0,0 +1,39 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Client program that takes an integer k as a command-line argument; reads a sequence of strings
+ * from standard input using StdIn.readString(); and prints exactly k of them, uniformly at random.
+ * Each item from the sequence is printed at most once.
+ * <p>
+ * Performance. The client uses a single RandomizedQueue in reservoir mode, so it holds at most k
+ * strings at any time, no matter how many strings are read from standard input.
+ * <p>
+ * % echo A B C D E F G H I | java-algs4 Permutation 3
+ * C
+ * G
+ * A
+ *
+ * @author Florian Woerz
+ */
+public class Permutation {
+
+    public static void main(String[] args) {
+        int k = Integer.parseInt(args[0]);
+        if (k == 0) return;
+
+        RandomizedQueue<String> queue = new RandomizedQueue<>(k);
+        while (!StdIn.isEmpty()) {
+            queue.enqueue(StdIn.readString());
+        }
+
+        for (String s : queue) {
+            StdOut.println(s);
+        }
+    }
+}
@@ -6,10 +6,16 @@
  **************************************************************************** */
 
 import edu.princeton.cs.algs4.StdOut;
-import edu.princeton.cs.algs4.StdRandom;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implements a randomized queue. A randomized queue is similar to a stack or queue, except that the
@@ -23,9 +29,32 @@ import java.util.NoSuchElementException;
  * (besides creating an iterator) in constant amortized time. That is, any intermixed sequence
  * of m randomized queue operations (starting from an empty queue) takes at most cm steps in the
  * worst case, for some constant c. A randomized queue containing n items uses at most 48n + 192
- * bytes of memory. Additionally, the iterator implementation supports operations next() and
- * hasNext() in constant worst-case time; and construction in linear time; we have to use a linear
- * amount of extra memory per iterator.
+ * bytes of memory (unless handles are used, see below). Additionally, the iterator implementation
+ * supports operations next() and hasNext() in constant worst-case time; and construction in
+ * linear time; we have to use a linear amount of extra memory per iterator.
+ * <p>
+ * Handles. enqueueWithHandle() returns a handle to the item, and remove(handle) removes that
+ * specific item in constant time, e.g., to cancel it before it is dequeued. Every handle knows the
+ * position of its item in the array, and every operation that moves an item (filling the gap left
+ * by a removed item with the last one, or shuffling in sample(k, a)) updates the position of its
+ * handle. Handles are opt-in: the parallel array of handles is only allocated by the first call
+ * to enqueueWithHandle(), and then costs 8 bytes per array entry plus about 24 bytes per handle.
+ * <p>
+ * Bulk operations. sample(k, a) and dequeue(k, a) draw k distinct items at once and write them
+ * into a caller-supplied array, in time proportional to k (plus at most one resize for dequeue).
+ * <p>
+ * Reservoir mode. A randomized queue created with RandomizedQueue(k) keeps at most k items. Once
+ * it is full, every further enqueue() replaces a random item such that the queue always holds a
+ * uniformly random subset of all items enqueued so far (reservoir sampling). This allows
+ * picking k items from an unbounded stream using memory proportional to k instead of n.
+ * <p>
+ * Randomness. Every randomized queue draws its random numbers from its own RandomGenerator, which
+ * can be passed to the constructor (e.g., a seeded SplittableRandom for reproducible runs). By
+ * default, a new SplittableRandom is used, so that queues do not contend for a shared generator.
+ * <p>
+ * Streams. Like the iterator, a spliterator or stream works on a shuffled copy of the items. It
+ * reports its exact size and splits by index ranges of the copy, so that parallelStream()
+ * distributes the items evenly over the common ForkJoin pool.
  * (In the file Deque.java we will also implement a deque.)
  * The time and memory complexities of the implementation abide by the following summary table:
  * | Deque                        | Randomized Queue
@@ -42,16 +71,93 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
     // specify initial capacity of the underlying resizing array
     private static final int INIT_CAPACITY = 8;
 
-    private Item[] q;   // queue elements
-    private int n;      // number of elements in queue
+    private Item[] q;                   // queue elements
+    private Handle[] handles;           // handles[i] is the handle of q[i] (null if it has none);
+                                        // null until the first enqueueWithHandle()
+    private Handle rejected;            // handle of items not kept in reservoir mode
+    private int n;                      // number of elements in queue
+    private final int reservoirSize;    // maximum number of elements; 0 if unbounded
+    private long enqueued;              // number of items offered to enqueue() so far
+    private final RandomGenerator random;   // source of randomness of this queue
+
+    /**
+     * Handle to an item in a randomized queue, as returned by enqueueWithHandle(). It can be
+     * passed to remove() to remove the item, as long as the item is still in the queue.
+     */
+    public static final class Handle {
+        private final RandomizedQueue<?> queue;     // the queue the item was enqueued to
+        private int index;  // position of the item in the array; -1 once it left the queue
+
+        private Handle(RandomizedQueue<?> queue, int index) {
+            this.queue = queue;
+            this.index = index;
+        }
+
+        /**
+         * Is the item of this handle still in the queue?
+         *
+         * @return true if the item has been neither dequeued nor removed; false otherwise
+         */
+        public boolean isQueued() {
+            return index >= 0;
+        }
+    }
 
 
     /**
      * Initializes an empty randomized queue
      */
     public RandomizedQueue() {
+        this(new SplittableRandom());
+    }
+
+
+    /**
+     * Initializes an empty randomized queue that draws its random numbers from `random`.
+     *
+     * @param random the random number generator to use
+     * @throws IllegalArgumentException if random is null
+     */
+    public RandomizedQueue(RandomGenerator random) {
+        if (random == null) throw new IllegalArgumentException("random cannot be null.");
         q = (Item[]) new Object[INIT_CAPACITY];
         n = 0;
+        reservoirSize = 0;
+        enqueued = 0;
+        this.random = random;
+    }
+
+
+    /**
+     * Initializes an empty randomized queue in reservoir mode, i.e., a randomized queue that holds
+     * at most `reservoirSize` items. After m >= reservoirSize calls to enqueue(), the queue holds a
+     * uniformly random subset of size `reservoirSize` of the m items.
+     *
+     * @param reservoirSize the maximum number of items held by the queue
+     * @throws IllegalArgumentException if reservoirSize is not positive
+     */
+    public RandomizedQueue(int reservoirSize) {
+        this(reservoirSize, new SplittableRandom());
+    }
+
+
+    /**
+     * Initializes an empty randomized queue in reservoir mode that draws its random numbers from
+     * `random`.
+     *
+     * @param reservoirSize the maximum number of items held by the queue
+     * @param random        the random number generator to use
+     * @throws IllegalArgumentException if reservoirSize is not positive or random is null
+     */
+    public RandomizedQueue(int reservoirSize, RandomGenerator random) {
+        if (reservoirSize <= 0)
+            throw new IllegalArgumentException("reservoirSize must be positive.");
+        if (random == null) throw new IllegalArgumentException("random cannot be null.");
+        q = (Item[]) new Object[Math.min(INIT_CAPACITY, reservoirSize)];
+        n = 0;
+        this.reservoirSize = reservoirSize;
+        enqueued = 0;
+        this.random = random;
     }
 
 
@@ -83,6 +189,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
             copy[i] = q[i];
         }
         q = copy;
+        if (handles != null) handles = Arrays.copyOf(handles, newCapacity);
     }
 
 
@@ -93,11 +200,64 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
      * @throws IllegalArgumentException if object is null
      */
     public void enqueue(Item item) {
+        enqueue(item, false);
+    }
+
+
+    /**
+     * Adds the item to the randomized queue and returns a handle to it, which can be passed to
+     * remove(handle).
+     *
+     * @param item the item to be added
+     * @return a handle to the item (in reservoir mode, the handle is not queued if the item was
+     * not kept)
+     * @throws IllegalArgumentException if object is null
+     */
+    public Handle enqueueWithHandle(Item item) {
+        if (handles == null) handles = new Handle[q.length];
+        return enqueue(item, true);
+    }
+
+
+    // Adds the item; returns its handle if `withHandle` (null otherwise)
+    private Handle enqueue(Item item, boolean withHandle) {
         if (item == null) throw new IllegalArgumentException("Object to add cannot be null.");
+        enqueued++;
+
+        // In reservoir mode a full queue keeps the new item with probability reservoirSize / m,
+        // where m is the number of items enqueued so far, replacing a uniformly random old item.
+        if (reservoirSize > 0 && n == reservoirSize) {
+            long rand = random.nextLong(enqueued);
+            if (rand >= n) {
+                if (!withHandle) return null;
+                if (rejected == null) rejected = new Handle(this, -1);
+                return rejected;
+            }
+            int i = (int) rand;
+            q[i] = item;
+            return setHandle(i, withHandle);
+        }
 
         // if necessary, double the size of the array and recopy the content to the front of new one
-        if (n == q.length) resize(2 * q.length);    // size-adjustment of array
-        q[n++] = item;                              // add item and increase last pointer
+        if (n == q.length) resize(capped(2 * q.length));    // size-adjustment of array
+        q[n] = item;
+        return setHandle(n++, withHandle);                  // increase last pointer
+    }
+
+
+    // Replaces the handle of position i (if any) by a new one if `withHandle`; returns the new one
+    private Handle setHandle(int i, boolean withHandle) {
+        if (handles == null) return null;
+        if (handles[i] != null) handles[i].index = -1;
+        handles[i] = withHandle ? new Handle(this, i) : null;
+        return handles[i];
+    }
+
+
+    // Caps a new capacity at the reservoir size (if any)
+    private int capped(int capacity) {
+        if (reservoirSize > 0 && capacity > reservoirSize) return reservoirSize;
+        return capacity;
     }
 
 
@@ -109,24 +269,65 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
      */
     public Item dequeue() {
         if (isEmpty()) throw new NoSuchElementException("Queue underflow");
-        // Get a random element
-        int rand = StdRandom.uniform(n);
-        Item item = q[rand];
-        if (rand == n - 1) {
-            q[rand] = null; // avoid loitering
-        }
-        else { // do not waste space at the end and fill the gap
-            q[rand] = q[n - 1];
-            q[n - 1] = null; // avoid loitering
-        }
+        // Get a random element, remove it and return it
+        Item item = removeAt(random.nextInt(n));
         // if necessary, shrink size of array
         if (n > 0 && n == q.length / 4) resize(q.length / 2);
-        // return the randomly sampled item and reduce item counter
+        return item;
+    }
+
+
+    /**
+     * Removes the item with the given handle from the queue in constant amortized time.
+     *
+     * @param handle the handle returned when the item was enqueued
+     * @return true if the item was removed; false if it had already left the queue (i.e., it was
+     * dequeued, removed or, in reservoir mode, replaced)
+     * @throws IllegalArgumentException if handle is null or belongs to another queue
+     */
+    public boolean remove(Handle handle) {
+        if (handle == null || handle.queue != this)
+            throw new IllegalArgumentException("The handle does not belong to this queue.");
+        if (handle.index < 0) return false;
+        removeAt(handle.index);
+        if (n > 0 && n == q.length / 4) resize(q.length / 2);
+        return true;
+    }
+
+
+    // Removes and returns the item at position i, filling the gap with the last item
+    private Item removeAt(int i) {
+        Item item = q[i];
+        int last = n - 1;
+        if (handles != null && handles[i] != null) handles[i].index = -1;
+        if (i != last) { // do not waste space at the end and fill the gap
+            q[i] = q[last];
+            if (handles != null) {
+                handles[i] = handles[last];
+                if (handles[i] != null) handles[i].index = i;
+            }
+        }
+        q[last] = null;         // avoid loitering
+        if (handles != null) handles[last] = null;
         n--;
         return item;
     }
 
 
+    // Swaps the items (and handles) at positions i and j
+    private void swap(int i, int j) {
+        Item tmp = q[i];
+        q[i] = q[j];
+        q[j] = tmp;
+        if (handles == null) return;
+        Handle tmpHandle = handles[i];
+        handles[i] = handles[j];
+        handles[j] = tmpHandle;
+        if (handles[i] != null) handles[i].index = i;
+        if (handles[j] != null) handles[j].index = j;
+    }
+
+
     /**
      * Return a random item from the queue (but does not remove it!)
      *
@@ -135,12 +336,63 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
     public Item sample() {
         if (isEmpty()) throw new NoSuchElementException("Queue underflow");
         // Get a random element
-        int rand = StdRandom.uniform(n);
+        int rand = random.nextInt(n);
         Item item = q[rand];
         return item;
     }
 
 
+    /**
+     * Writes k distinct random items of the queue (sampled without replacement) into a[0..k-1],
+     * without removing them from the queue. Runs in time proportional to k.
+     *
+     * @param k the number of items to sample
+     * @param a the array to write the sampled items to
+     * @throws IllegalArgumentException if a is null, k is negative, k exceeds the size of the
+     *                                  queue, or a has fewer than k entries
+     */
+    public void sample(int k, Item[] a) {
+        checkBulkArguments(k, a);
+        // Partial Fisher-Yates shuffle: after step i, q[0..i] is a uniformly random subset of the
+        // items. Since the order of the items inside the queue is irrelevant, we shuffle in place.
+        for (int i = 0; i < k; i++) {
+            swap(i, i + random.nextInt(n - i));
+            a[i] = q[i];
+        }
+    }
+
+
+    /**
+     * Removes k random items from the queue and writes them into a[0..k-1]. Runs in time
+     * proportional to k, plus at most one resize of the underlying array.
+     *
+     * @param k the number of items to remove
+     * @param a the array to write the removed items to
+     * @throws IllegalArgumentException if a is null, k is negative, k exceeds the size of the
+     *                                  queue, or a has fewer than k entries
+     */
+    public void dequeue(int k, Item[] a) {
+        checkBulkArguments(k, a);
+        for (int i = 0; i < k; i++) {
+            a[i] = removeAt(random.nextInt(n));
+        }
+        // shrink the array only once, to the smallest power-of-two fraction still above n / 4
+        int capacity = q.length;
+        while (capacity > INIT_CAPACITY && n <= capacity / 4) capacity /= 2;
+        if (capacity != q.length) resize(capacity);
+    }
+
+
+    // Throws an Exception if the arguments to the bulk operations are not valid
+    private void checkBulkArguments(int k, Item[] a) {
+        if (a == null) throw new IllegalArgumentException("The array cannot be null.");
+        if (k < 0 || k > n)
+            throw new IllegalArgumentException("k must be between 0 and " + n + ": " + k);
+        if (a.length < k)
+            throw new IllegalArgumentException("The array is too small to hold " + k + " items.");
+    }
+
+
     /**
      * Return an independent iterator over the items in the queue in random order
      *
@@ -150,17 +402,60 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         return new RandomizedIterator();
     }
 
+    // Returns a copy of the items in uniformly random order (Knuth shuffle)
+    private Item[] shuffledCopy() {
+        Item[] copy = (Item[]) new Object[n];
+        for (int i = 0; i < n; i++) {
+            copy[i] = q[i];
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int rand = random.nextInt(i + 1);
+            Item tmp = copy[i];
+            copy[i] = copy[rand];
+            copy[rand] = tmp;
+        }
+        return copy;
+    }
+
+
+    /**
+     * Returns an independent spliterator over the items in the queue in random order. The
+     * spliterator is SIZED and SUBSIZED and splits by index ranges.
+     *
+     * @return independent spliterator
+     */
+    @Override
+    public Spliterator<Item> spliterator() {
+        return Spliterators.spliterator(shuffledCopy(), Spliterator.NONNULL);
+    }
+
+
+    /**
+     * Returns a sequential stream over the items in the queue in random order.
+     *
+     * @return sequential stream
+     */
+    public Stream<Item> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+
+    /**
+     * Returns a parallel stream over the items in the queue in random order.
+     *
+     * @return parallel stream
+     */
+    public Stream<Item> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     private class RandomizedIterator implements Iterator<Item> {
 
         private final Item[] copy;
         private int count = 0;
 
         public RandomizedIterator() {
-            copy = (Item[]) new Object[n];
-            for (int i = 0; i < n; i++) {
-                copy[i] = q[i];
-            }
-            StdRandom.shuffle(copy);
+            copy = shuffledCopy();
         }
 
         public boolean hasNext() {
@@ -206,7 +501,44 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         queue2.size();                      // ==> 2
         queue2.enqueue(490);
         StdOut.println(queue2.dequeue());
-        
+
+        // Bulk sampling and removal
+        RandomizedQueue<Integer> queue3 = new RandomizedQueue<>();
+        for (int i = 0; i < 100; i++) queue3.enqueue(i);
+        Integer[] picked = new Integer[10];
+        queue3.sample(10, picked);
+        StdOut.println(queue3.size());      // ==> 100
+        queue3.dequeue(90, new Integer[90]);
+        StdOut.println(queue3.size());      // ==> 10
+
+        // Two queues with equally seeded generators behave identically
+        RandomizedQueue<Integer> seeded1 = new RandomizedQueue<>(new SplittableRandom(42));
+        RandomizedQueue<Integer> seeded2 = new RandomizedQueue<>(new SplittableRandom(42));
+        for (int i = 0; i < 100; i++) {
+            seeded1.enqueue(i);
+            seeded2.enqueue(i);
+        }
+        StdOut.println(seeded1.dequeue().equals(seeded2.dequeue()));   // ==> true
+
+        // Cancel a specific item through its handle
+        RandomizedQueue<String> queue4 = new RandomizedQueue<>();
+        queue4.enqueue("keep");
+        RandomizedQueue.Handle cancel = queue4.enqueueWithHandle("cancel");
+        queue4.enqueue("keep");
+        StdOut.println(queue4.remove(cancel));  // ==> true
+        StdOut.println(queue4.remove(cancel));  // ==> false
+        StdOut.println(queue4.dequeue() + " " + queue4.dequeue());  // ==> keep keep
+
+        // Parallel streams split the queue by index ranges
+        StdOut.println(queue3.parallelStream().mapToInt(i -> 1).sum());   // ==> 10
+
+        // Reservoir mode: keep 3 random items out of 1000
+        RandomizedQueue<Integer> reservoir = new RandomizedQueue<>(3);
+        for (int i = 0; i < 1000; i++) reservoir.enqueue(i);
+        StdOut.println(reservoir.size());   // ==> 3
+        for (int e : reservoir) {
+            StdOut.println(e);
+        }
     }
 
 }
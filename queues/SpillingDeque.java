@@ -0,0 +1,423 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implements a deque that keeps at most a fixed number of items in memory and spills the rest to
+ * disk. It supports the same operations as Deque.java and is meant for deques that can grow larger
+ * than the heap.
+ * <p>
+ * IDEA: The items are split into three parts, from front to back: a `head` deque in memory, a
+ * sequence of `segments` on disk, and a `tail` deque in memory. Items are added to and removed
+ * from the head and the tail, so both ends of the deque stay in memory. Whenever the head (or
+ * tail) grows beyond half of the memory budget, its innermost quarter of the budget is written to
+ * a new segment file at the front (or back) of the segments. Whenever the head (or tail) runs
+ * empty, the first (or last) segment is read back into memory and its file is deleted. Segments
+ * are written and read through memory-mapped files, and items are converted to and from bytes by
+ * a pluggable Serializer.
+ * <p>
+ * Performance. A segment is only read back once the head (or tail) is empty, and only spilled
+ * once it has grown by at least another segment, so every item is written and read a constant
+ * number of times per segment it passes through. Hence, addFirst, addLast, removeFirst, and
+ * removeLast take constant amortized time (counting the serialization of an item as constant).
+ * At most `maxInMemory` items plus one array of a segment's worth of items are held in memory at
+ * any time. The iterator reads one segment at a time and does not modify the files.
+ * <p>
+ * clear() deletes the segment files, and close() also deletes the temporary directory if the
+ * deque created it.
+ *
+ * @author Florian Woerz
+ */
+public class SpillingDeque<Item> implements Iterable<Item>, AutoCloseable {
+
+    /**
+     * Converts items to bytes and back. For every item, fromBytes(toBytes(item)) must return an
+     * item equal to `item`.
+     *
+     * @param <Item> the type of items to serialize
+     */
+    public interface Serializer<Item> {
+        byte[] toBytes(Item item);
+
+        Item fromBytes(byte[] bytes);
+    }
+
+    // Helper class for a segment file on disk and the number of items in it
+    private static class Segment {
+        private final Path file;
+        private final int count;
+
+        public Segment(Path file, int count) {
+            this.file = file;
+            this.count = count;
+        }
+    }
+
+    private final Deque<Item> head;             // front items, in memory
+    private final Deque<Segment> segments;      // middle items, on disk, in order front to back
+    private final Deque<Item> tail;             // back items, in memory
+    private final int maxHot;                   // maximum size of head and tail, each
+    private final int segmentSize;              // number of items per segment file
+    private final Serializer<Item> serializer;
+    private final Path directory;               // directory holding the segment files
+    private final boolean ownsDirectory;        // did the deque create the directory?
+    private int n;                              // size of the deque
+
+
+    /**
+     * Initializes an empty deque that keeps at most `maxInMemory` items in memory and writes its
+     * segment files to a new temporary directory.
+     *
+     * @param maxInMemory the memory budget, in number of items (at least 2)
+     * @param serializer  the serializer used to write items to disk
+     * @throws IllegalArgumentException if maxInMemory is less than 2 or serializer is null
+     * @throws UncheckedIOException     if the temporary directory cannot be created
+     */
+    public SpillingDeque(int maxInMemory, Serializer<Item> serializer) {
+        this(maxInMemory, serializer, createTempDirectory(), true);
+    }
+
+
+    /**
+     * Initializes an empty deque that keeps at most `maxInMemory` items in memory and writes its
+     * segment files to `directory`.
+     *
+     * @param maxInMemory the memory budget, in number of items (at least 2)
+     * @param serializer  the serializer used to write items to disk
+     * @param directory   an existing directory for the segment files
+     * @throws IllegalArgumentException if maxInMemory is less than 2, or serializer or directory
+     *                                  is null, or directory is not a directory
+     */
+    public SpillingDeque(int maxInMemory, Serializer<Item> serializer, Path directory) {
+        this(maxInMemory, serializer, directory, false);
+    }
+
+    private SpillingDeque(int maxInMemory, Serializer<Item> serializer, Path directory,
+                          boolean ownsDirectory) {
+        if (maxInMemory < 2) throw new IllegalArgumentException("maxInMemory must be at least 2.");
+        if (serializer == null) throw new IllegalArgumentException("serializer cannot be null.");
+        if (directory == null || !Files.isDirectory(directory))
+            throw new IllegalArgumentException("directory must be an existing directory.");
+
+        head = new Deque<>();
+        segments = new Deque<>();
+        tail = new Deque<>();
+        maxHot = maxInMemory / 2;
+        segmentSize = Math.max(1, maxInMemory / 4);
+        this.serializer = serializer;
+        this.directory = directory;
+        this.ownsDirectory = ownsDirectory;
+        n = 0;
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("deque");
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /**
+     * Checks if the deque is empty.
+     *
+     * @return true if the deque is empty; false otherwise
+     */
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+
+    /**
+     * Returns the number of items on the deque (in memory and on disk).
+     *
+     * @return number of elements in deque
+     */
+    public int size() {
+        return n;
+    }
+
+
+    /**
+     * Returns the number of items currently written to disk.
+     *
+     * @return number of elements on disk
+     */
+    public int sizeOnDisk() {
+        return n - head.size() - tail.size();
+    }
+
+
+    /**
+     * Adds the item to the front.
+     *
+     * @param item the item to add
+     * @throws IllegalArgumentException if item is null
+     * @throws UncheckedIOException     if a segment file cannot be written
+     */
+    public void addFirst(Item item) {
+        if (item == null) throw new IllegalArgumentException("Item cannot be null.");
+        head.addFirst(item);
+        n++;
+        if (head.size() > maxHot) {
+            // spill the innermost items of the head, i.e., the ones at its back
+            Item[] items = (Item[]) new Object[segmentSize];
+            for (int i = segmentSize - 1; i >= 0; i--) items[i] = head.removeLast();
+            segments.addFirst(write(items));
+        }
+    }
+
+
+    /**
+     * Adds the item to the back.
+     *
+     * @param item the item to add
+     * @throws IllegalArgumentException if item is null
+     * @throws UncheckedIOException     if a segment file cannot be written
+     */
+    public void addLast(Item item) {
+        if (item == null) throw new IllegalArgumentException("Item cannot be null.");
+        tail.addLast(item);
+        n++;
+        if (tail.size() > maxHot) {
+            // spill the innermost items of the tail, i.e., the ones at its front
+            Item[] items = (Item[]) new Object[segmentSize];
+            for (int i = 0; i < segmentSize; i++) items[i] = tail.removeFirst();
+            segments.addLast(write(items));
+        }
+    }
+
+
+    /**
+     * Removes and returns the item from the front.
+     *
+     * @return the item from the front
+     * @throws java.util.NoSuchElementException if the deque is empty
+     * @throws UncheckedIOException             if a segment file cannot be read
+     */
+    public Item removeFirst() {
+        if (isEmpty()) throw new NoSuchElementException("Deque underflow");
+        n--;
+        if (!head.isEmpty()) return head.removeFirst();
+        if (segments.isEmpty()) return tail.removeFirst();
+
+        Item[] items = readAndDelete(segments.removeFirst());
+        for (int i = items.length - 1; i > 0; i--) head.addFirst(items[i]);
+        return items[0];
+    }
+
+
+    /**
+     * Removes and returns the item from the back.
+     *
+     * @return the item from the back
+     * @throws java.util.NoSuchElementException if the deque is empty
+     * @throws UncheckedIOException             if a segment file cannot be read
+     */
+    public Item removeLast() {
+        if (isEmpty()) throw new NoSuchElementException("Deque underflow");
+        n--;
+        if (!tail.isEmpty()) return tail.removeLast();
+        if (segments.isEmpty()) return head.removeLast();
+
+        Item[] items = readAndDelete(segments.removeLast());
+        for (int i = 0; i < items.length - 1; i++) tail.addLast(items[i]);
+        return items[items.length - 1];
+    }
+
+
+    /**
+     * Removes all items and deletes all segment files (but not the directory). The deque is empty
+     * afterwards and can still be used.
+     *
+     * @throws UncheckedIOException if a file cannot be deleted
+     */
+    public void clear() {
+        while (!segments.isEmpty()) delete(segments.removeFirst().file);
+        while (!head.isEmpty()) head.removeFirst();
+        while (!tail.isEmpty()) tail.removeFirst();
+        n = 0;
+    }
+
+
+    /**
+     * Removes all items, deletes all segment files, and deletes the directory if the deque created
+     * it as a temporary directory (a directory passed to the constructor is kept). The deque must
+     * not be used afterwards.
+     *
+     * @throws UncheckedIOException if a file or the directory cannot be deleted
+     */
+    @Override
+    public void close() {
+        clear();
+        if (ownsDirectory) delete(directory);
+    }
+
+
+    // Writes the items to a new memory-mapped segment file. The file consists of the number of
+    // items, followed by the length and the bytes of each item.
+    private Segment write(Item[] items) {
+        byte[][] bytes = new byte[items.length][];
+        long length = 4;
+        for (int i = 0; i < items.length; i++) {
+            bytes[i] = serializer.toBytes(items[i]);
+            if (bytes[i] == null) throw new IllegalStateException("Serializer returned null.");
+            length += 4 + bytes[i].length;
+        }
+        if (length > Integer.MAX_VALUE)
+            throw new IllegalStateException("Segment exceeds 2 GB; use a smaller maxInMemory.");
+
+        try {
+            Path file = Files.createTempFile(directory, "segment", ".bin");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+                                                        StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+                buffer.putInt(items.length);
+                for (byte[] b : bytes) {
+                    buffer.putInt(b.length);
+                    buffer.put(b);
+                }
+            }
+            return new Segment(file, items.length);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    // Reads the items of a memory-mapped segment file
+    private Item[] read(Segment segment) {
+        try (FileChannel channel = FileChannel.open(segment.file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int count = buffer.getInt();
+            assert count == segment.count;
+            Item[] items = (Item[]) new Object[count];
+            for (int i = 0; i < count; i++) {
+                byte[] b = new byte[buffer.getInt()];
+                buffer.get(b);
+                items[i] = serializer.fromBytes(b);
+            }
+            return items;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Item[] readAndDelete(Segment segment) {
+        Item[] items = read(segment);
+        delete(segment.file);
+        return items;
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /**
+     * Returns an iterator over the items in order from front to back. The deque must not be
+     * modified while iterating.
+     *
+     * @return iterator
+     */
+    public Iterator<Item> iterator() {
+        return new FrontToBackIterator();
+    }
+
+    private class FrontToBackIterator implements Iterator<Item> {
+        private final Iterator<Item> headIterator = head.iterator();
+        private final Iterator<Segment> segmentIterator = segments.iterator();
+        private final Iterator<Item> tailIterator = tail.iterator();
+        private Item[] current = null;  // items of the segment being iterated over
+        private int index = 0;          // index of the next item in `current`
+
+        public boolean hasNext() {
+            if (headIterator.hasNext()) return true;
+            while (current == null || index == current.length) {
+                if (!segmentIterator.hasNext()) return tailIterator.hasNext();
+                current = read(segmentIterator.next());
+                index = 0;
+            }
+            return true;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        public Item next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            if (headIterator.hasNext()) return headIterator.next();
+            if (current != null && index < current.length) return current[index++];
+            return tailIterator.next();
+        }
+    }
+
+    // Some simple unit tests
+    public static void main(String[] args) {
+        Serializer<String> strings = new Serializer<String>() {
+            public byte[] toBytes(String s) {
+                return s.getBytes(StandardCharsets.UTF_8);
+            }
+
+            public String fromBytes(byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+
+        // Used as a queue: 100000 items pass through a deque that holds at most 100 in memory
+        SpillingDeque<String> deque = new SpillingDeque<>(100, strings);
+        for (int i = 0; i < 100000; i++) {
+            deque.addLast("item" + i);
+        }
+        StdOut.println(deque.size());           // ==> 100000
+        StdOut.println(deque.sizeOnDisk());     // ==> 99950
+        int count = 0;
+        for (String s : deque) {
+            if (!s.equals("item" + count)) StdOut.println("wrong order at " + count);
+            count++;
+        }
+        StdOut.println(count);                  // ==> 100000
+        StdOut.println(deque.removeFirst());    // ==> item0
+        StdOut.println(deque.removeLast());     // ==> item99999
+
+        // Used as a stack at the front
+        for (int i = 0; i < 1000; i++) {
+            deque.addFirst("front" + i);
+        }
+        StdOut.println(deque.removeFirst());    // ==> front999
+        deque.clear();
+        StdOut.println(deque.isEmpty());        // ==> true
+
+        // The deque can still spill after clear()
+        for (int i = 0; i < 1000; i++) {
+            deque.addLast("again" + i);
+        }
+        StdOut.println(deque.sizeOnDisk() > 0); // ==> true
+        StdOut.println(deque.removeFirst());    // ==> again0
+        deque.close();
+    }
+}
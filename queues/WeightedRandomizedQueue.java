@@ -0,0 +1,386 @@
+/* *****************************************************************************
+ *  Name:              Florian Woerz
+ *  Course:            Algorithms, Part I by Princeton University
+ **************************************************************************** */
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Implements a weighted randomized queue. Every item is enqueued with a positive weight, and the
+ * item removed (or sampled) is chosen at random with probability proportional to its weight, i.e.,
+ * an item with weight w is chosen with probability w / W, where W is the total weight of all items
+ * in the queue. With equal weights, it behaves like RandomizedQueue.java.
+ * <p>
+ * enqueue() returns a handle to the item that can be used to change its weight later on.
+ * <p>
+ * IDEA: As in RandomizedQueue.java, the items are kept in a resizing array, and a removed item is
+ * replaced by the last one. On top of the array we keep a Fenwick tree (binary indexed tree) of the
+ * weights. It can add a value to a weight and find the item at which the running sum of the
+ * weights first exceeds a given value, both in logarithmic time. To pick an item, we draw a
+ * uniformly random value r from [0, W) and find the item at which the running sum exceeds r.
+ * <p>
+ * Performance. enqueue(), dequeue(), sample(), and setWeight() take logarithmic amortized time.
+ * The iterator returns the items in weighted random order (each next item is chosen proportional
+ * to its weight among the items not yet returned). Its construction takes linear time and memory,
+ * and next() takes logarithmic time. The Fenwick tree is rebuilt from the exact weights whenever
+ * the array is resized, which also discards floating-point rounding errors that have accumulated.
+ *
+ * @author Florian Woerz
+ */
+public class WeightedRandomizedQueue<Item> implements Iterable<Item> {
+    // specify initial capacity of the underlying resizing array
+    private static final int INIT_CAPACITY = 8;
+
+    private Handle[] a;                     // queue elements
+    private SumTree tree;                   // Fenwick tree over the weights of the elements
+    private int n;                          // number of elements in queue
+    private final RandomGenerator random;   // source of randomness of this queue
+
+    /**
+     * Handle to an item in a weighted randomized queue, as returned by enqueue(). It remains valid
+     * until the item is dequeued.
+     */
+    public final class Handle {
+        private final Item item;
+        private double weight;
+        private int index;          // position in the array; -1 once dequeued
+
+        private Handle(Item item, double weight, int index) {
+            this.item = item;
+            this.weight = weight;
+            this.index = index;
+        }
+
+        /**
+         * Returns the item of this handle.
+         *
+         * @return the item
+         */
+        public Item item() {
+            return item;
+        }
+
+        /**
+         * Returns the current weight of the item.
+         *
+         * @return the weight
+         */
+        public double weight() {
+            return weight;
+        }
+
+        private WeightedRandomizedQueue<Item> queue() {
+            return WeightedRandomizedQueue.this;
+        }
+    }
+
+
+    /**
+     * Initializes an empty weighted randomized queue
+     */
+    public WeightedRandomizedQueue() {
+        this(new SplittableRandom());
+    }
+
+
+    /**
+     * Initializes an empty weighted randomized queue that draws its random numbers from `random`.
+     *
+     * @param random the random number generator to use
+     * @throws IllegalArgumentException if random is null
+     */
+    public WeightedRandomizedQueue(RandomGenerator random) {
+        if (random == null) throw new IllegalArgumentException("random cannot be null.");
+        a = (Handle[]) new WeightedRandomizedQueue<?>.Handle[INIT_CAPACITY];
+        tree = new SumTree(new double[INIT_CAPACITY], 0);
+        n = 0;
+        this.random = random;
+    }
+
+
+    /**
+     * Is the weighted randomized queue empty?
+     *
+     * @return true if the queue is empty; false otherwise
+     */
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+
+    /**
+     * Returns the number of items in the weighted randomized queue
+     *
+     * @return number of items in the queue
+     */
+    public int size() {
+        return n;
+    }
+
+
+    /**
+     * Returns the total weight of the items in the queue (up to floating-point rounding).
+     *
+     * @return total weight
+     */
+    public double totalWeight() {
+        return tree.total();
+    }
+
+
+    // Resizes the underlying array to hold `newCapacity` many items and rebuilds the tree
+    private void resize(int newCapacity) {
+        assert newCapacity >= n;
+        Handle[] copy = (Handle[]) new WeightedRandomizedQueue<?>.Handle[newCapacity];
+        double[] weights = new double[newCapacity];
+        for (int i = 0; i < n; i++) {
+            copy[i] = a[i];
+            weights[i] = a[i].weight;
+        }
+        a = copy;
+        tree = new SumTree(weights, n);
+    }
+
+
+    /**
+     * Adds the item with the given weight to the queue
+     *
+     * @param item   the item to be added
+     * @param weight the weight of the item
+     * @return a handle to the item
+     * @throws IllegalArgumentException if item is null or weight is not positive and finite
+     */
+    public Handle enqueue(Item item, double weight) {
+        if (item == null) throw new IllegalArgumentException("Object to add cannot be null.");
+        checkWeight(weight);
+
+        if (n == a.length) resize(2 * a.length);
+        Handle handle = new Handle(item, weight, n);
+        a[n] = handle;
+        tree.add(n, weight);
+        n++;
+        return handle;
+    }
+
+
+    /**
+     * Removes and returns a random item, chosen with probability proportional to its weight
+     *
+     * @return a random item from the queue
+     * @throws java.util.NoSuchElementException if the queue is empty
+     */
+    public Item dequeue() {
+        if (isEmpty()) throw new NoSuchElementException("Queue underflow");
+        Handle handle = a[pick()];
+        removeAt(handle.index);
+        if (n > 0 && n == a.length / 4) resize(a.length / 2);
+        return handle.item;
+    }
+
+
+    /**
+     * Returns a random item, chosen with probability proportional to its weight (but does not
+     * remove it!)
+     *
+     * @return random item
+     * @throws java.util.NoSuchElementException if the queue is empty
+     */
+    public Item sample() {
+        if (isEmpty()) throw new NoSuchElementException("Queue underflow");
+        return a[pick()].item;
+    }
+
+
+    /**
+     * Changes the weight of the item with the given handle.
+     *
+     * @param handle the handle returned when the item was enqueued
+     * @param weight the new weight of the item
+     * @throws IllegalArgumentException if the handle does not belong to an item in this queue or
+     *                                  weight is not positive and finite
+     */
+    public void setWeight(Handle handle, double weight) {
+        if (handle == null || handle.queue() != this || handle.index < 0) {
+            throw new IllegalArgumentException(
+                    "The handle does not belong to an item in the queue.");
+        }
+        checkWeight(weight);
+        tree.add(handle.index, weight - handle.weight);
+        handle.weight = weight;
+    }
+
+
+    // Returns the index of a random item, chosen with probability proportional to its weight
+    private int pick() {
+        return Math.min(tree.find(random.nextDouble() * tree.total()), n - 1);
+    }
+
+
+    // Removes the item at position i by moving the last item into the gap
+    private void removeAt(int i) {
+        Handle removed = a[i];
+        int last = n - 1;
+        tree.add(i, -removed.weight);
+        if (i != last) {
+            Handle moved = a[last];
+            tree.add(last, -moved.weight);
+            tree.add(i, moved.weight);
+            a[i] = moved;
+            moved.index = i;
+        }
+        a[last] = null; // avoid loitering
+        removed.index = -1;
+        n--;
+    }
+
+
+    private static void checkWeight(double weight) {
+        if (!(weight > 0) || Double.isInfinite(weight))
+            throw new IllegalArgumentException("weight must be positive and finite: " + weight);
+    }
+
+
+    /**
+     * Fenwick tree (binary indexed tree) over an array of non-negative weights, whose length is a
+     * power of two. tree[i] (1-based) holds the sum of the weights at the positions
+     * (i - lowbit(i), i], where lowbit(i) is the lowest set bit of i.
+     */
+    private static class SumTree {
+        private final double[] tree;
+
+        // Builds the tree over weights[0..capacity-1] in linear time; the weights at positions
+        // n and above must be 0.
+        SumTree(double[] weights, int n) {
+            tree = new double[weights.length + 1];
+            for (int i = 0; i < n; i++) {
+                tree[i + 1] = weights[i];
+            }
+            for (int i = 1; i < tree.length; i++) {
+                int parent = i + (i & -i);
+                if (parent < tree.length) tree[parent] += tree[i];
+            }
+        }
+
+        // Adds delta to the weight at (0-based) position i
+        void add(int i, double delta) {
+            for (i++; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        // Returns the sum of all weights
+        double total() {
+            return tree[tree.length - 1];
+        }
+
+        // Returns the smallest (0-based) position i such that the sum of the weights at positions
+        // 0..i exceeds r
+        int find(double r) {
+            int pos = 0;
+            for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+                if (tree[pos + step] <= r) {
+                    pos += step;
+                    r -= tree[pos];
+                }
+            }
+            return pos;
+        }
+    }
+
+
+    /**
+     * Return an independent iterator over the items in the queue in weighted random order
+     *
+     * @return independent iterator
+     */
+    public Iterator<Item> iterator() {
+        return new WeightedRandomIterator();
+    }
+
+    private class WeightedRandomIterator implements Iterator<Item> {
+        private final Item[] items;
+        private final double[] weights;
+        private final SumTree remaining;    // tree over the weights of the items not yet returned
+        private int count;                  // number of items not yet returned
+
+        public WeightedRandomIterator() {
+            items = (Item[]) new Object[a.length];
+            weights = new double[a.length];
+            for (int i = 0; i < n; i++) {
+                items[i] = a[i].item;
+                weights[i] = a[i].weight;
+            }
+            remaining = new SumTree(weights, n);
+            count = n;
+        }
+
+        public boolean hasNext() {
+            return count > 0;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        public Item next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int i = Math.min(remaining.find(random.nextDouble() * remaining.total()), count - 1);
+            Item item = items[i];
+            // move the last remaining item into the gap, as in removeAt()
+            int last = count - 1;
+            remaining.add(i, -weights[i]);
+            if (i != last) {
+                remaining.add(last, -weights[last]);
+                remaining.add(i, weights[last]);
+                items[i] = items[last];
+                weights[i] = weights[last];
+            }
+            items[last] = null;
+            count--;
+            return item;
+        }
+    }
+
+    // Some small and incomplete unit tests
+    public static void main(String[] args) {
+        WeightedRandomizedQueue<String> queue = new WeightedRandomizedQueue<>();
+        queue.enqueue("light", 1.0);
+        WeightedRandomizedQueue<String>.Handle heavy = queue.enqueue("heavy", 3.0);
+        StdOut.println(queue.size());           // ==> 2
+        StdOut.println(queue.totalWeight());    // ==> 4.0
+
+        int heavyCount = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (queue.sample().equals("heavy")) heavyCount++;
+        }
+        StdOut.println(heavyCount / 100000.0);  // ==> approx. 0.75
+
+        queue.setWeight(heavy, 1.0);
+        heavyCount = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (queue.sample().equals("heavy")) heavyCount++;
+        }
+        StdOut.println(heavyCount / 100000.0);  // ==> approx. 0.5
+
+        for (String s : queue) {
+            StdOut.println(s);
+        }
+
+        // Many items: dequeue all of them, including one with a much larger weight
+        WeightedRandomizedQueue<Integer> queue2 = new WeightedRandomizedQueue<>();
+        for (int i = 0; i < 10000; i++) {
+            queue2.enqueue(i, 1.0);
+        }
+        queue2.enqueue(-1, 1000.0);
+        long sum = 0;
+        while (!queue2.isEmpty()) {
+            sum += queue2.dequeue();
+        }
+        StdOut.println(sum);                    // ==> 49994999
+    }
+}